@@ -0,0 +1,86 @@
+package com.stockapi.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark of the Jackson serialization of {@link StockResponse} lists as
+ * done by the REST controller
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockResponseSerializationBenchmark {
+
+	@Param({ "10", "10000", "1000000" })
+	private int rows;
+
+	private ObjectMapper objectMapper;
+	private List<StockResponse> stocks;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		SplittableRandom random = new SplittableRandom(42);
+		LocalDateTime lastUpdate = LocalDateTime.of(2021, 2, 1, 10, 0);
+		stocks = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++)
+			stocks.add(StockResponse.builder()
+					.id((long) i + 1)
+					.name("Stock " + i)
+					.currentPrice(Price.ofCents(random.nextInt(1, 100_000)))
+					.lastUpdate(lastUpdate.plusSeconds(i))
+					.build());
+	}
+
+	@Benchmark
+	public long serialize() throws IOException {
+		CountingOutputStream outputStream = new CountingOutputStream();
+		objectMapper.writeValue(outputStream, stocks);
+		return outputStream.count;
+	}
+
+	/**
+	 * Discards the written bytes and only counts them
+	 */
+	private static final class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
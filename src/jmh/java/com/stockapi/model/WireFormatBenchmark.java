@@ -0,0 +1,89 @@
+package com.stockapi.model;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark of writing and reading {@link StockResponse} lists in the wire
+ * formats served by the REST controller, the payload size of every format is
+ * printed on setup
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WireFormatBenchmark {
+
+	@Param({ "json", "cbor", "smile" })
+	private String format;
+
+	@Param({ "10", "10000" })
+	private int rows;
+
+	private ObjectMapper objectMapper;
+	private JavaType listType;
+	private List<StockResponse> stocks;
+	private byte[] payload;
+
+	@Setup
+	public void setUp() throws IOException {
+		switch (format) {
+		case "cbor":
+			objectMapper = Jackson2ObjectMapperBuilder.cbor().build();
+			break;
+		case "smile":
+			objectMapper = Jackson2ObjectMapperBuilder.smile().build();
+			break;
+		default:
+			objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		}
+		listType = objectMapper.getTypeFactory().constructCollectionType(List.class, StockResponse.class);
+		SplittableRandom random = new SplittableRandom(42);
+		LocalDateTime lastUpdate = LocalDateTime.of(2021, 2, 1, 10, 0);
+		stocks = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++)
+			stocks.add(StockResponse.builder()
+					.id((long) i + 1)
+					.name("Stock " + i)
+					.currentPrice(Price.ofCents(random.nextInt(1, 100_000)))
+					.lastUpdate(lastUpdate.plusSeconds(i))
+					.build());
+		payload = objectMapper.writeValueAsBytes(stocks);
+		System.out.println(format + " payload of " + rows + " rows : " + payload.length + " bytes");
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		return objectMapper.writeValueAsBytes(stocks);
+	}
+
+	@Benchmark
+	public List<StockResponse> deserialize() throws IOException {
+		return objectMapper.readValue(payload, listType);
+	}
+}
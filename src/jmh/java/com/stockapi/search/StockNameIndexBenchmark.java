@@ -0,0 +1,63 @@
+package com.stockapi.search;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of prefix and substring lookups of {@link StockNameIndex} over a
+ * million generated names
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockNameIndexBenchmark {
+
+	private static final String[] WORDS = { "Global", "Tech", "Energy", "Holdings", "Pharma", "Capital", "Mining",
+			"Systems", "Foods", "Motors", "Bank", "Networks", "Retail", "Biotech", "Airlines", "Media" };
+
+	@Param({ "1000000" })
+	private int size;
+
+	private StockNameIndex stockNameIndex;
+
+	@Setup
+	public void setUp() {
+		stockNameIndex = new StockNameIndex(null, null);
+		for (int i = 1; i <= size; i++)
+			stockNameIndex.add((long) i, WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " "
+					+ Integer.toString(i, 36) + " Inc");
+	}
+
+	@Benchmark
+	public List<Long> searchPrefix() {
+		return stockNameIndex.search("pharma bio", 20);
+	}
+
+	@Benchmark
+	public List<Long> searchSubstring() {
+		return stockNameIndex.search("tors bank", 20);
+	}
+
+	@Benchmark
+	public List<Long> searchRareSubstring() {
+		return stockNameIndex.search("a2k", 20);
+	}
+}
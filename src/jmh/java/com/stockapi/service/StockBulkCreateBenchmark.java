@@ -0,0 +1,78 @@
+package com.stockapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.stockapi.StockApiApplication;
+import com.stockapi.model.BatchItemResponse;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockRequest;
+
+/**
+ * Throughput of {@link StockService#createStocks(List)} by id allocation size,
+ * an allocation size of one needs a sequence call for every inserted stock as
+ * the former {@code AUTO} generation did
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockBulkCreateBenchmark {
+
+	@Param({ "1", "50" })
+	private int allocationSize;
+
+	@Param({ "1000" })
+	private int batchSize;
+
+	private ConfigurableApplicationContext context;
+	private StockService stockService;
+	private long sequence;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(StockApiApplication.class)
+				.properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=warn",
+						"stock.id.allocation-size=" + allocationSize)
+				.run();
+		stockService = context.getBean(StockService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<BatchItemResponse> createStocks() {
+		List<StockRequest> stockRequests = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++)
+			stockRequests.add(StockRequest.builder()
+					.name("Benchmark " + sequence++)
+					.currentPrice(Price.parse("100.00"))
+					.build());
+		return stockService.createStocks(stockRequests);
+	}
+}
@@ -0,0 +1,49 @@
+package com.stockapi.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.stockapi.domain.Stock;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+
+/**
+ * Benchmark of the {@link Stock} to {@link StockResponse} mapping
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockResponseMappingBenchmark {
+
+	private StockService stockService;
+	private Stock stock;
+
+	@Setup
+	public void setUp() {
+		stockService = new StockService();
+		stock = Stock.builder().id(5L).name("Tesla Inc").currentPrice(Price.parse("793.53"))
+				.lastUpdate(LocalDateTime.now()).build();
+	}
+
+	@Benchmark
+	public StockResponse getStockResponse() {
+		return stockService.getStockResponse(stock);
+	}
+}
@@ -0,0 +1,113 @@
+package com.stockapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.stockapi.StockApiApplication;
+import com.stockapi.model.BatchItemResponse;
+import com.stockapi.model.Price;
+import com.stockapi.model.PriceRequest;
+import com.stockapi.model.StockRequest;
+import com.stockapi.model.StockResponse;
+
+/**
+ * {@link StockService} benchmarks against the application context with the
+ * embedded database holding the given number of stocks
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockServiceBenchmark {
+
+	private static final int BATCH_SIZE = 1000;
+
+	@Param({ "10", "10000" })
+	private int rows;
+
+	@Param({ "true", "false" })
+	private boolean cache;
+
+	private ConfigurableApplicationContext context;
+	private StockService stockService;
+	private long[] ids;
+	private SplittableRandom random;
+	private long sequence;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(StockApiApplication.class)
+				.properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=warn",
+						"stock.cache.enabled=" + cache)
+				.run();
+		stockService = context.getBean(StockService.class);
+
+		List<Long> createdIds = new ArrayList<>();
+		for (int i = 0; i < rows; i += BATCH_SIZE) {
+			List<StockRequest> stockRequests = new ArrayList<>();
+			for (int j = i; j < Math.min(rows, i + BATCH_SIZE); j++)
+				stockRequests.add(StockRequest.builder().name("Stock " + j).currentPrice(Price.parse("100.00")).build());
+			for (BatchItemResponse batchItemResponse : stockService.createStocks(stockRequests))
+				createdIds.add(batchItemResponse.getStock().getId());
+		}
+		ids = createdIds.stream().mapToLong(Long::longValue).toArray();
+		random = new SplittableRandom(42);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<StockResponse> getStocks() {
+		return stockService.getStocks(randomId(), 100);
+	}
+
+	@Benchmark
+	public StockResponse getStock() {
+		return stockService.getStock(randomId());
+	}
+
+	@Benchmark
+	public StockResponse createStock() {
+		return stockService.createStock(StockRequest.builder()
+				.name("Benchmark " + sequence++)
+				.currentPrice(Price.parse("100.00"))
+				.build());
+	}
+
+	@Benchmark
+	public StockResponse updateStock() {
+		return stockService.updateStock(randomId(), PriceRequest.builder()
+				.currentPrice(Price.ofCents(random.nextInt(1, 100_000)))
+				.build());
+	}
+
+	private long randomId() {
+		return ids[random.nextInt(ids.length)];
+	}
+}
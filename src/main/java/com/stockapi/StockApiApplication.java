@@ -1,15 +1,27 @@
 package com.stockapi;
 
-import java.math.BigDecimal;
+import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
 
+import com.stockapi.bulk.StockTableSnapshot;
+import com.stockapi.config.StockProperties;
 import com.stockapi.domain.Stock;
+import com.stockapi.model.Price;
 import com.stockapi.repository.StockRepository;
+import com.stockapi.store.QuoteStore;
 
 /**
  * Runner class for Stock API
@@ -18,38 +30,106 @@ import com.stockapi.repository.StockRepository;
  *
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class StockApiApplication implements CommandLineRunner {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(StockApiApplication.class);
+	
+	private static final int STARTUP_STEPS = 4096;
+
+	/**
+	 * Runs the application recording its startup steps, the timeline is served by
+	 * the startup actuator endpoint
+	 * 
+	 * @param args - command line arguments
+	 */
 	public static void main(String[] args) {
-		SpringApplication.run(StockApiApplication.class, args);
+		SpringApplication application = new SpringApplication(StockApiApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 	
 	@Autowired
 	private StockRepository stockRepository;
+	
+	@Autowired
+	private StockTableSnapshot stockTableSnapshot;
+	
+	@Autowired
+	private StockProperties stockProperties;
+	
+	@Autowired(required = false)
+	private QuoteStore quoteStore;
 
 	@Override
 	public void run(String... args) throws Exception {
-		loadStocks();
+		if (hasStocks())
+			return;
+		Resource snapshot = stockProperties.getStartup().getSnapshot();
+		if (snapshot == null) {
+			loadStocks();
+		} else if (!snapshot.exists()) {
+			LOGGER.warn("Stock snapshot {} does not exist, loading the sample stocks", snapshot.getDescription());
+			loadStocks();
+		} else {
+			long start = System.nanoTime();
+			long count = stockTableSnapshot.load(snapshot);
+			LOGGER.info("Loaded {} stocks from {} in {} ms", count, snapshot.getDescription(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+	}
+	
+	/**
+	 * Logs the time from the JVM start until the application is ready to serve
+	 * requests, including the seeding of the stocks
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void logReady() {
+		LOGGER.info("Ready to serve requests {} ms after the JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+	}
+	
+	/**
+	 * 
+	 * @return true if the stocks are already there, in the quote store if it owns
+	 *         the stocks, otherwise in the database
+	 */
+	private boolean hasStocks() {
+		if (quoteStore != null && quoteStore.ownsStocks())
+			return !quoteStore.getAfter(0, 1).isEmpty();
+		return stockRepository.count() > 0;
+	}
+	
+	/**
+	 * Saves the given stock to the quote store if it owns the stocks, otherwise to
+	 * the database
+	 * 
+	 * @param stock - {@link Stock}
+	 */
+	private void save(Stock stock) {
+		if (quoteStore != null && quoteStore.ownsStocks())
+			quoteStore.create(stock.getName(), stock.getCurrentPrice(), stock.getLastUpdate());
+		else
+			stockRepository.save(stock);
 	}
 	
 	/**
-	 * Constructs {@link Stock} entities on application startup
+	 * Constructs the sample {@link Stock} entities on application startup
 	 */
 	private void loadStocks() {
-		Stock gme = Stock.builder().name("GameStop Corp.").currentPrice(new BigDecimal("325.00")).lastUpdate(LocalDateTime.now()).build();
-		stockRepository.save(gme);
+		Stock gme = Stock.builder().name("GameStop Corp.").currentPrice(Price.parse("325.00")).lastUpdate(LocalDateTime.now()).build();
+		save(gme);
 		
-		Stock amc = Stock.builder().name("AMC Entertainment Holdings Inc").currentPrice(new BigDecimal("13.26")).lastUpdate(LocalDateTime.now()).build();
-		stockRepository.save(amc);
+		Stock amc = Stock.builder().name("AMC Entertainment Holdings Inc").currentPrice(Price.parse("13.26")).lastUpdate(LocalDateTime.now()).build();
+		save(amc);
 		
-		Stock bb = Stock.builder().name("BlackBerry Ltd").currentPrice(new BigDecimal("14.10")).lastUpdate(LocalDateTime.now()).build();
-		stockRepository.save(bb);
+		Stock bb = Stock.builder().name("BlackBerry Ltd").currentPrice(Price.parse("14.10")).lastUpdate(LocalDateTime.now()).build();
+		save(bb);
 		
-		Stock nok = Stock.builder().name("Nokia Oyj").currentPrice(new BigDecimal("4.56")).lastUpdate(LocalDateTime.now()).build();
-		stockRepository.save(nok);
+		Stock nok = Stock.builder().name("Nokia Oyj").currentPrice(Price.parse("4.56")).lastUpdate(LocalDateTime.now()).build();
+		save(nok);
 		
-		Stock tsla = Stock.builder().name("Tesla Inc").currentPrice(new BigDecimal("793.53")).lastUpdate(LocalDateTime.now()).build();
-		stockRepository.save(tsla);
+		Stock tsla = Stock.builder().name("Tesla Inc").currentPrice(Price.parse("793.53")).lastUpdate(LocalDateTime.now()).build();
+		save(tsla);
 	}
 
 }
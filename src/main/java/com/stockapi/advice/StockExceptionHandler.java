@@ -3,6 +3,7 @@ package com.stockapi.advice;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,10 +15,14 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import com.stockapi.exception.StockAlreadyExistsException;
+import com.stockapi.exception.StockBadRequestException;
+import com.stockapi.exception.StockConflictException;
 import com.stockapi.exception.StockNotFoundException;
+import com.stockapi.exception.StockPreconditionFailedException;
 
 /**
- * Handles exceptions and returns human readable {@code NOT_FOUND} and {@code BAD_REQUEST} responses.
+ * Handles exceptions and returns human readable {@code NOT_FOUND}, {@code BAD_REQUEST},
+ * {@code CONFLICT} and {@code PRECONDITION_FAILED} responses.
  * 
  * @author gorkemdemiray
  * 
@@ -39,20 +44,50 @@ public class StockExceptionHandler extends ResponseEntityExceptionHandler {
 	}
 	
 	/**
-	 * Handles both MethodArgumentTypeMismatchException and
-	 * StockAlreadyExistsException exceptions and returns error response
+	 * Handles MethodArgumentTypeMismatchException, StockAlreadyExistsException and
+	 * StockBadRequestException exceptions and returns error response
 	 * 
-	 * @param exception - {@link MethodArgumentTypeMismatchException} or
-	 *                  {@link StockAlreadyExistsException}
+	 * @param exception - {@link MethodArgumentTypeMismatchException},
+	 *                  {@link StockAlreadyExistsException} or
+	 *                  {@link StockBadRequestException}
 	 * @param request   - {@link WebRequest}
 	 * @return {@link ErrorResponse}
 	 */
-	@ExceptionHandler({MethodArgumentTypeMismatchException.class, StockAlreadyExistsException.class})
+	@ExceptionHandler({MethodArgumentTypeMismatchException.class, StockAlreadyExistsException.class, StockBadRequestException.class})
 	public ResponseEntity<Object> handleBadRequestException(Exception exception, WebRequest request) {
 		ErrorResponse response = new ErrorResponse(HttpStatus.BAD_REQUEST, exception.getMessage());
 		return new ResponseEntity<Object>(response, new HttpHeaders(), response.getStatus());
 	}
 
+	/**
+	 * Handles StockConflictException and OptimisticLockingFailureException
+	 * exceptions and returns error response
+	 * 
+	 * @param exception - {@link StockConflictException} or
+	 *                  {@link OptimisticLockingFailureException}
+	 * @param request   - {@link WebRequest}
+	 * @return {@link ErrorResponse}
+	 */
+	@ExceptionHandler({StockConflictException.class, OptimisticLockingFailureException.class})
+	public ResponseEntity<Object> handleConflictException(Exception exception, WebRequest request) {
+		ErrorResponse response = new ErrorResponse(HttpStatus.CONFLICT, exception.getMessage());
+		return new ResponseEntity<Object>(response, new HttpHeaders(), response.getStatus());
+	}
+	
+	/**
+	 * Handles StockPreconditionFailedException exception and returns error
+	 * response
+	 * 
+	 * @param exception - {@link StockPreconditionFailedException}
+	 * @param request   - {@link WebRequest}
+	 * @return {@link ErrorResponse}
+	 */
+	@ExceptionHandler(StockPreconditionFailedException.class)
+	public ResponseEntity<Object> handlePreconditionFailedException(Exception exception, WebRequest request) {
+		ErrorResponse response = new ErrorResponse(HttpStatus.PRECONDITION_FAILED, exception.getMessage());
+		return new ResponseEntity<Object>(response, new HttpHeaders(), response.getStatus());
+	}
+
 	/**
 	 * Handles MethodArgumentNotValidException exception and returns error response
 	 * 
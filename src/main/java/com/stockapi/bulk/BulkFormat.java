@@ -0,0 +1,74 @@
+package com.stockapi.bulk;
+
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+import com.stockapi.exception.StockBadRequestException;
+
+/**
+ * Formats of bulk import and export
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public enum BulkFormat {
+
+	/**
+	 * Comma separated values with a header row, fields containing a comma or a
+	 * quote are quoted
+	 */
+	CSV(MediaType.valueOf("text/csv")),
+	/**
+	 * One JSON object per line
+	 */
+	NDJSON(MediaType.valueOf("application/x-ndjson")),
+	/**
+	 * Binary {@link StockTableSnapshot} which can only be exported and loaded on
+	 * startup
+	 */
+	SNAPSHOT(MediaType.APPLICATION_OCTET_STREAM);
+
+	public static final String CSV_VALUE = "text/csv";
+	public static final String NDJSON_VALUE = "application/x-ndjson";
+
+	private final MediaType mediaType;
+
+	BulkFormat(MediaType mediaType) {
+		this.mediaType = mediaType;
+	}
+
+	/**
+	 * 
+	 * @return {@link MediaType} of the format
+	 */
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * 
+	 * @param name - format name ignoring case
+	 * @return {@link BulkFormat} with the given name
+	 * @throws StockBadRequestException if there is no such format
+	 */
+	public static BulkFormat of(String name) {
+		for (BulkFormat format : values())
+			if (format.name().equals(name.trim().toUpperCase(Locale.ROOT)))
+				return format;
+		throw new StockBadRequestException("Unknown bulk format : " + name);
+	}
+
+	/**
+	 * 
+	 * @param mediaType - content type of a request
+	 * @return {@link BulkFormat} of the given content type
+	 * @throws StockBadRequestException if no format has the given content type
+	 */
+	public static BulkFormat of(MediaType mediaType) {
+		for (BulkFormat format : values())
+			if (format.mediaType.isCompatibleWith(mediaType))
+				return format;
+		throw new StockBadRequestException("Unsupported bulk content type : " + mediaType);
+	}
+}
@@ -0,0 +1,111 @@
+package com.stockapi.bulk;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockapi.model.StockResponse;
+import com.stockapi.service.StockService;
+
+/**
+ * Writes all the stocks as CSV, NDJSON or a binary snapshot in constant
+ * memory, rows are written as they are read from the storage. CSV and NDJSON
+ * can be imported again by {@link StockImporter} unless a name contains a line
+ * break.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class StockExporter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final StockService stockService;
+	private final ObjectMapper objectMapper;
+	private final StockTableSnapshot stockTableSnapshot;
+
+	public StockExporter(StockService stockService, ObjectMapper objectMapper, StockTableSnapshot stockTableSnapshot) {
+		this.stockService = stockService;
+		this.objectMapper = objectMapper;
+		this.stockTableSnapshot = stockTableSnapshot;
+	}
+
+	/**
+	 * Writes all the stocks ordered by id to the given stream
+	 * 
+	 * @param outputStream - target of the rows
+	 * @param format       - {@link BulkFormat}
+	 * @throws IOException if the stream can not be written
+	 */
+	public void exportStocks(OutputStream outputStream, BulkFormat format) throws IOException {
+		try {
+			if (format == BulkFormat.CSV)
+				exportCsv(outputStream);
+			else if (format == BulkFormat.NDJSON)
+				exportJson(outputStream);
+			else
+				stockTableSnapshot.write(outputStream);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private void exportCsv(OutputStream outputStream) throws IOException {
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			writer.write("id,name,currentPrice,lastUpdate\n");
+			stockService.streamStocks(stockResponse -> {
+				try {
+					writer.write(String.valueOf(stockResponse.getId()));
+					writer.write(',');
+					writeCsv(writer, stockResponse.getName());
+					writer.write(',');
+					writer.write(stockResponse.getCurrentPrice().toString());
+					writer.write(',');
+					if (stockResponse.getLastUpdate() != null)
+						writer.write(stockResponse.getLastUpdate().toString());
+					writer.write('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+	}
+
+	private void exportJson(OutputStream outputStream) throws IOException {
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+			generator.setRootValueSeparator(null);
+			stockService.streamStocks(stockResponse -> writeJson(generator, stockResponse));
+		}
+	}
+
+	private static void writeJson(JsonGenerator generator, StockResponse stockResponse) {
+		try {
+			generator.writeObject(stockResponse);
+			generator.writeRaw('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes a field quoted if it contains a comma, a quote or a line break
+	 */
+	private static void writeCsv(Writer writer, String field) throws IOException {
+		if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+			writer.write(field);
+			return;
+		}
+		writer.write('"');
+		writer.write(field.replace("\"", "\"\""));
+		writer.write('"');
+	}
+}
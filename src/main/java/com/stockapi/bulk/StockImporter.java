@@ -0,0 +1,333 @@
+package com.stockapi.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.stockapi.config.StockProperties;
+import com.stockapi.exception.StockAlreadyExistsException;
+import com.stockapi.exception.StockBadRequestException;
+import com.stockapi.model.BatchItemResponse;
+import com.stockapi.model.ImportResponse;
+import com.stockapi.model.ImportRowError;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockRequest;
+import com.stockapi.service.StockService;
+
+/**
+ * Creates stocks from a CSV or NDJSON stream in constant memory. Lines are
+ * read in chunks, every chunk is parsed in parallel while the previous one is
+ * created in its own transaction through {@link StockService#createStocks(List)}
+ * which validates the rows and skips the invalid ones. Failed rows are
+ * reported with their line numbers, committed chunks stay if a later one
+ * fails.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class StockImporter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final StockService stockService;
+	private final ObjectReader stockRequestReader;
+	private final StockProperties.Bulk properties;
+
+	public StockImporter(StockService stockService, ObjectMapper objectMapper, StockProperties stockProperties) {
+		this.stockService = stockService;
+		this.stockRequestReader = objectMapper.readerFor(StockRequest.class);
+		this.properties = stockProperties.getBulk();
+	}
+
+	/**
+	 * Creates the stocks of the given stream. CSV needs a header row naming the
+	 * {@code name} and {@code currentPrice} columns, other columns are ignored.
+	 * Without a header the first two columns are taken as name and price. Blank
+	 * lines are skipped
+	 * 
+	 * @param inputStream - rows to import
+	 * @param contentType - {@link MediaType} of a {@link BulkFormat}, UTF-8 is
+	 *                    used if it has no charset
+	 * @return {@link ImportResponse}
+	 * @throws IOException if the stream can not be read
+	 */
+	public ImportResponse importStocks(InputStream inputStream, MediaType contentType) throws IOException {
+		BulkFormat format = BulkFormat.of(contentType);
+		if (format == BulkFormat.SNAPSHOT)
+			throw new StockBadRequestException("Snapshots can only be loaded on startup");
+		Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+		LineReader reader = new LineReader(new BufferedReader(new InputStreamReader(inputStream, charset), BUFFER_SIZE));
+		Function<Line, Row> parser = format == BulkFormat.CSV ? csvParser(reader) : this::parseJson;
+		Report report = new Report(properties.getMaxErrors());
+
+		List<Line> lines = reader.read(properties.getChunkSize());
+		CompletableFuture<List<Row>> parsing = parse(lines, parser);
+		while (parsing != null) {
+			lines = reader.read(properties.getChunkSize());
+			List<Row> rows = parsing.join();
+			parsing = parse(lines, parser);
+			write(rows, report);
+		}
+		return report.toResponse();
+	}
+
+	private static CompletableFuture<List<Row>> parse(List<Line> lines, Function<Line, Row> parser) {
+		if (lines.isEmpty())
+			return null;
+		return CompletableFuture.supplyAsync(() -> lines.parallelStream().map(parser).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Creates the parsed rows of a chunk and reports the failed ones
+	 */
+	private void write(List<Row> rows, Report report) {
+		List<Row> parsedRows = new ArrayList<>(rows.size());
+		List<StockRequest> stockRequests = new ArrayList<>(rows.size());
+		for (Row row : rows) {
+			report.rows++;
+			if (row.errorMessage != null) {
+				report.fail(row.line, Arrays.asList(row.errorMessage));
+			} else {
+				parsedRows.add(row);
+				stockRequests.add(row.stockRequest);
+			}
+		}
+		if (stockRequests.isEmpty())
+			return;
+		try {
+			for (BatchItemResponse batchItemResponse : stockService.createStocks(stockRequests)) {
+				if (batchItemResponse.getStatus() == HttpStatus.CREATED)
+					report.created++;
+				else
+					report.fail(parsedRows.get(batchItemResponse.getIndex()).line, batchItemResponse.getErrorMessage());
+			}
+		} catch (StockAlreadyExistsException e) {
+			parsedRows.forEach(row -> report.fail(row.line, Arrays.asList(e.getMessage())));
+		}
+	}
+
+	/**
+	 * Reads the header row of a CSV stream, a first row without a {@code name}
+	 * column is kept as data
+	 */
+	private static Function<Line, Row> csvParser(LineReader reader) throws IOException {
+		List<Line> first = reader.read(1);
+		if (first.isEmpty())
+			return line -> null;
+		List<String> header;
+		try {
+			header = parseCsv(first.get(0).text);
+		} catch (IllegalArgumentException e) {
+			header = Collections.emptyList();
+		}
+		int nameIndex = indexOf(header, "name");
+		if (nameIndex < 0) {
+			reader.unread(first.get(0));
+			return line -> parseCsv(line, 0, 1);
+		}
+		int priceIndex = indexOf(header, "currentPrice");
+		return line -> parseCsv(line, nameIndex, priceIndex);
+	}
+
+	private static int indexOf(List<String> header, String column) {
+		for (int i = 0; i < header.size(); i++)
+			if (header.get(i).trim().equalsIgnoreCase(column))
+				return i;
+		return -1;
+	}
+
+	private static Row parseCsv(Line line, int nameIndex, int priceIndex) {
+		List<String> fields;
+		try {
+			fields = parseCsv(line.text);
+		} catch (IllegalArgumentException e) {
+			return new Row(line.number, "Illegal format for row!");
+		}
+		String name = nameIndex < fields.size() ? fields.get(nameIndex) : null;
+		String price = priceIndex >= 0 && priceIndex < fields.size() ? fields.get(priceIndex) : null;
+		try {
+			return new Row(line.number, StockRequest.builder()
+					.name(name)
+					.currentPrice(price == null || price.trim().isEmpty() ? null : Price.parse(price))
+					.build());
+		} catch (NumberFormatException e) {
+			return new Row(line.number, "Illegal format for price!");
+		}
+	}
+
+	/**
+	 * Splits a CSV line into its fields, a quoted field may contain commas and
+	 * doubled quotes but no line breaks
+	 * 
+	 * @param line - CSV line
+	 * @return fields of the line
+	 * @throws IllegalArgumentException if a quote is not closed or is followed by
+	 *                                  anything but a comma
+	 */
+	static List<String> parseCsv(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		int length = line.length();
+		int i = 0;
+		while (true) {
+			if (i < length && line.charAt(i) == '"') {
+				i++;
+				while (true) {
+					if (i >= length)
+						throw new IllegalArgumentException("Quote is not closed : " + line);
+					char c = line.charAt(i++);
+					if (c != '"')
+						field.append(c);
+					else if (i < length && line.charAt(i) == '"')
+						field.append(line.charAt(i++));
+					else
+						break;
+				}
+				if (i < length && line.charAt(i) != ',')
+					throw new IllegalArgumentException("Quoted field is followed by text : " + line);
+			} else {
+				int end = line.indexOf(',', i);
+				if (end < 0)
+					end = length;
+				field.append(line, i, end);
+				i = end;
+			}
+			fields.add(field.toString());
+			field.setLength(0);
+			if (i >= length)
+				return fields;
+			i++;
+		}
+	}
+
+	private Row parseJson(Line line) {
+		try {
+			StockRequest stockRequest = stockRequestReader.readValue(line.text);
+			return stockRequest == null ? new Row(line.number, "Illegal format for row!") : new Row(line.number, stockRequest);
+		} catch (InvalidFormatException e) {
+			boolean price = !e.getPath().isEmpty() && "currentPrice".equals(e.getPath().get(e.getPath().size() - 1).getFieldName());
+			return new Row(line.number, price ? "Illegal format for price!" : "Illegal format for row!");
+		} catch (JsonProcessingException e) {
+			return new Row(line.number, "Illegal format for row!");
+		}
+	}
+
+	/**
+	 * Non-blank line with its number
+	 */
+	private static final class Line {
+
+		private final long number;
+		private final String text;
+
+		private Line(long number, String text) {
+			this.number = number;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * Reads non-blank lines in chunks counting all the lines
+	 */
+	private static final class LineReader {
+
+		private final BufferedReader reader;
+		private long number;
+		private Line unread;
+
+		private LineReader(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		private List<Line> read(int count) throws IOException {
+			List<Line> lines = new ArrayList<>(count);
+			if (unread != null) {
+				lines.add(unread);
+				unread = null;
+			}
+			String text;
+			while (lines.size() < count && (text = reader.readLine()) != null) {
+				number++;
+				if (!text.trim().isEmpty())
+					lines.add(new Line(number, text));
+			}
+			return lines;
+		}
+
+		private void unread(Line line) {
+			unread = line;
+		}
+	}
+
+	/**
+	 * Parsed row, either with a request or with the reason it could not be parsed
+	 */
+	private static final class Row {
+
+		private final long line;
+		private final StockRequest stockRequest;
+		private final String errorMessage;
+
+		private Row(long line, StockRequest stockRequest) {
+			this.line = line;
+			this.stockRequest = stockRequest;
+			this.errorMessage = null;
+		}
+
+		private Row(long line, String errorMessage) {
+			this.line = line;
+			this.stockRequest = null;
+			this.errorMessage = errorMessage;
+		}
+	}
+
+	/**
+	 * Counts of an import and its first errors
+	 */
+	private static final class Report {
+
+		private final int maxErrors;
+		private final List<ImportRowError> errors = new ArrayList<>();
+		private long rows;
+		private long created;
+		private long failed;
+
+		private Report(int maxErrors) {
+			this.maxErrors = maxErrors;
+		}
+
+		private void fail(long line, List<String> errorMessage) {
+			failed++;
+			if (errors.size() < maxErrors)
+				errors.add(ImportRowError.builder().line(line).errorMessage(errorMessage).build());
+		}
+
+		private ImportResponse toResponse() {
+			return ImportResponse.builder()
+					.rows(rows)
+					.created(created)
+					.failed(failed)
+					.errors(errors)
+					.build();
+		}
+	}
+}
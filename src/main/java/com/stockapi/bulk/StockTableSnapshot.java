@@ -0,0 +1,127 @@
+package com.stockapi.bulk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.domain.Stock;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+import com.stockapi.repository.StockRepository;
+import com.stockapi.service.StockService;
+import com.stockapi.store.QuoteStore;
+
+/**
+ * Binary snapshot of the stock table used to seed a new instance without
+ * parsing text. A snapshot starts with a magic number and a format version,
+ * followed by one record per stock holding its name, price in cents and last
+ * update time in epoch milliseconds, and ends with a zero byte. Ids are not
+ * kept, loaded stocks get new ids from the sequence, or from the quote store if
+ * it owns the stocks.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class StockTableSnapshot {
+
+	private static final int MAGIC = 0x53544B53;
+	private static final byte FORMAT_VERSION = 1;
+	private static final byte RECORD = 1;
+	private static final byte END = 0;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final StockService stockService;
+	private final StockRepository stockRepository;
+	private final QuoteStore quoteStore;
+	private final int chunkSize;
+
+	public StockTableSnapshot(StockService stockService, StockRepository stockRepository,
+			@Nullable QuoteStore quoteStore, StockProperties stockProperties) {
+		this.stockService = stockService;
+		this.stockRepository = stockRepository;
+		this.quoteStore = quoteStore;
+		this.chunkSize = stockProperties.getBulk().getChunkSize();
+	}
+
+	/**
+	 * Writes all the stocks ordered by id to the given stream
+	 * 
+	 * @param outputStream - target of the snapshot
+	 * @throws IOException if the stream can not be written
+	 */
+	public void write(OutputStream outputStream) throws IOException {
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE))) {
+			output.writeInt(MAGIC);
+			output.writeByte(FORMAT_VERSION);
+			stockService.streamStocks(stockResponse -> write(output, stockResponse));
+			output.writeByte(END);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Saves the stocks of the given snapshot in chunks, each chunk in its own
+	 * transaction with batched inserts
+	 * 
+	 * @param snapshot - {@link Resource} of a snapshot
+	 * @return number of loaded stocks
+	 * @throws IOException if the snapshot can not be read or is not a snapshot
+	 */
+	public long load(Resource snapshot) throws IOException {
+		long count = 0;
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(snapshot.getInputStream(), BUFFER_SIZE))) {
+			if (input.readInt() != MAGIC || input.readByte() != FORMAT_VERSION)
+				throw new IOException("Not a stock snapshot : " + snapshot.getDescription());
+			List<Stock> stocks = new ArrayList<>(chunkSize);
+			while (input.readByte() == RECORD) {
+				stocks.add(Stock.builder()
+						.name(input.readUTF())
+						.currentPrice(Price.ofCents(input.readLong()))
+						.lastUpdate(LocalDateTime.ofInstant(Instant.ofEpochMilli(input.readLong()), ZoneId.systemDefault()))
+						.build());
+				if (stocks.size() == chunkSize)
+					count += save(stocks);
+			}
+			count += save(stocks);
+		}
+		return count;
+	}
+
+	private int save(List<Stock> stocks) {
+		int size = stocks.size();
+		if (quoteStore != null && quoteStore.ownsStocks())
+			stocks.forEach(stock -> quoteStore.create(stock.getName(), stock.getCurrentPrice(), stock.getLastUpdate()));
+		else if (size > 0)
+			stockRepository.saveAll(stocks);
+		stocks.clear();
+		return size;
+	}
+
+	private static void write(DataOutputStream output, StockResponse stockResponse) {
+		try {
+			output.writeByte(RECORD);
+			output.writeUTF(stockResponse.getName());
+			output.writeLong(stockResponse.getCurrentPrice().getCents());
+			output.writeLong(stockResponse.getLastUpdate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.stockapi.cache;
+
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.stockapi.config.StockProperties;
+import com.stockapi.model.StockResponse;
+
+/**
+ * Bounded read-through cache of {@link StockResponse} objects keyed by stock
+ * id, with an index of the cached names for the duplicate check on create.
+ * Entries are evicted by size and time to live and kept coherent by writing
+ * through on every create and update.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class StockCache {
+
+	private final boolean enabled;
+	private final Cache<Long, StockResponse> stocksById;
+	private final Cache<String, Long> idsByName;
+
+	public StockCache(StockProperties stockProperties) {
+		StockProperties.Cache cache = stockProperties.getCache();
+		this.enabled = cache.isEnabled();
+		this.stocksById = Caffeine.newBuilder()
+				.maximumSize(cache.getMaximumSize())
+				.expireAfterWrite(cache.getTtl())
+				.recordStats()
+				.build();
+		this.idsByName = Caffeine.newBuilder()
+				.maximumSize(cache.getMaximumSize())
+				.expireAfterWrite(cache.getTtl())
+				.build();
+	}
+
+	/**
+	 * Returns the cached stock with the given id, loads and caches it on a miss.
+	 * Concurrent misses on the same id load it only once
+	 * 
+	 * @param id     - stock id
+	 * @param loader - loads the stock, may throw if it does not exist
+	 * @return {@link StockResponse}
+	 */
+	public StockResponse get(Long id, Function<Long, StockResponse> loader) {
+		if (!enabled)
+			return loader.apply(id);
+		return stocksById.get(id, loader);
+	}
+
+	/**
+	 * Returns the cached stock with the given name without loading it
+	 * 
+	 * @param name - stock name
+	 * @return {@link StockResponse} or null
+	 */
+	public StockResponse getIfPresent(String name) {
+		if (!enabled)
+			return null;
+		Long id = idsByName.getIfPresent(name);
+		return id == null ? null : stocksById.getIfPresent(id);
+	}
+
+	/**
+	 * Writes the given stock through to the cache
+	 * 
+	 * @param stockResponse - {@link StockResponse}
+	 */
+	public void put(StockResponse stockResponse) {
+		if (!enabled || stockResponse == null)
+			return;
+		stocksById.put(stockResponse.getId(), stockResponse);
+		idsByName.put(stockResponse.getName(), stockResponse.getId());
+	}
+
+	/**
+	 * 
+	 * @return hit, miss and eviction counters of the cache by id
+	 */
+	public CacheStats stats() {
+		return stocksById.stats();
+	}
+
+	/**
+	 * 
+	 * @return approximate number of cached stocks
+	 */
+	public long size() {
+		return stocksById.estimatedSize();
+	}
+}
@@ -0,0 +1,168 @@
+package com.stockapi.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockapi.config.StockProperties;
+import com.stockapi.service.StockService;
+
+/**
+ * Serialized JSON array of all the stocks, kept as plain and gzip compressed
+ * heap bytes so that full list reads only copy bytes to the response. The
+ * snapshot is tagged with the {@link StockTableVersion} it was built for and
+ * nothing is done on writes, a read which finds it stale builds it again. Reads
+ * within {@code stock.http.list-snapshot-interval} of the last build keep the
+ * stale snapshot, so the table is serialized at most once per interval however
+ * often the stocks change. A single read rebuilds at a time, the others are
+ * served the previous snapshot meanwhile.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+@ConditionalOnProperty(name = "stock.http.list-snapshot", havingValue = "true")
+public class StockListSnapshot {
+
+	private final StockService stockService;
+	private final ObjectMapper objectMapper;
+	private final StockTableVersion stockTableVersion;
+	private final long rebuildInterval;
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile Snapshot snapshot;
+
+	public StockListSnapshot(StockService stockService, ObjectMapper objectMapper, StockTableVersion stockTableVersion,
+			StockProperties stockProperties) {
+		this.stockService = stockService;
+		this.objectMapper = objectMapper;
+		this.stockTableVersion = stockTableVersion;
+		this.rebuildInterval = stockProperties.getHttp().getListSnapshotInterval().toNanos();
+	}
+
+	/**
+	 * Returns the current snapshot, builds it if it is missing or if it is stale
+	 * and older than the rebuild interval. Only the first read blocks, a stale
+	 * snapshot is returned while another read is rebuilding it
+	 * 
+	 * @return {@link Snapshot}
+	 */
+	public Snapshot get() {
+		Snapshot current = snapshot;
+		if (current != null && isFresh(current))
+			return current;
+		if (current == null)
+			lock.lock();
+		else if (!lock.tryLock())
+			return current;
+		try {
+			current = snapshot;
+			if (current != null && isFresh(current))
+				return current;
+			current = build(stockTableVersion.getVersion(), stockTableVersion.getLastModified());
+			snapshot = current;
+			return current;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 
+	 * @param snapshot - {@link Snapshot}
+	 * @return true if the snapshot is of the current table version or was built
+	 *         within the rebuild interval
+	 */
+	private boolean isFresh(Snapshot snapshot) {
+		return snapshot.version == stockTableVersion.getVersion() || System.nanoTime() - snapshot.builtAt < rebuildInterval;
+	}
+
+	/**
+	 * Serializes all the stocks the same way as the streaming list endpoint and
+	 * compresses the result with the default level. The version is read before
+	 * the stocks, so a change committed meanwhile only makes the snapshot stale
+	 */
+	private Snapshot build(long version, long lastModified) {
+		long builtAt = System.nanoTime();
+		ByteArrayOutputStream json = new ByteArrayOutputStream(64 * 1024);
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+			generator.writeStartArray();
+			stockService.streamStocks(stockResponse -> {
+				try {
+					generator.writeObject(stockResponse);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			generator.writeEndArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		byte[] bytes = json.toByteArray();
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream(Math.max(bytes.length / 4, 64));
+		try (GZIPOutputStream outputStream = new GZIPOutputStream(gzip, 64 * 1024)) {
+			outputStream.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new Snapshot(version, lastModified, builtAt, bytes, gzip.toByteArray());
+	}
+
+	/**
+	 * Serialized list of a single table version, the arrays must not be modified
+	 */
+	public static final class Snapshot {
+
+		private final long version;
+		private final long lastModified;
+		private final long builtAt;
+		private final byte[] json;
+		private final byte[] gzip;
+
+		private Snapshot(long version, long lastModified, long builtAt, byte[] json, byte[] gzip) {
+			this.version = version;
+			this.lastModified = lastModified;
+			this.builtAt = builtAt;
+			this.json = json;
+			this.gzip = gzip;
+		}
+
+		/**
+		 * 
+		 * @return table version the snapshot was built for
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * 
+		 * @return last modification time of the table version in milliseconds
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * 
+		 * @return JSON array of all the stocks
+		 */
+		public byte[] getJson() {
+			return json;
+		}
+
+		/**
+		 * 
+		 * @return gzip compressed JSON array of all the stocks
+		 */
+		public byte[] getGzip() {
+			return gzip;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.stockapi.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stockapi.event.StockChangedEvent;
+
+/**
+ * Version of the whole stock table used as the validator of list responses.
+ * It is increased after every committed change and starts from the startup
+ * time, so versions of an earlier run are not mistaken for the current ones.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class StockTableVersion {
+
+	private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+	private volatile long lastModified = System.currentTimeMillis();
+
+	/**
+	 * Increases the version after the transaction which changed a stock commits
+	 * 
+	 * @param event - {@link StockChangedEvent}
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onStockChanged(StockChangedEvent event) {
+		lastModified = System.currentTimeMillis();
+		version.incrementAndGet();
+	}
+
+	/**
+	 * 
+	 * @return current version
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * 
+	 * @return time of the last change in epoch milliseconds
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+}
@@ -0,0 +1,71 @@
+package com.stockapi.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Runs Tomcat request processing and async MVC handlers such as the streaming
+ * endpoints on virtual threads if {@code stock.execution.virtual-threads} is
+ * enabled. Otherwise requests run on the bounded Tomcat pool and async
+ * handlers on the bounded application task executor, both sized in the
+ * application properties independently of the JDBC pool.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Configuration
+@ConditionalOnProperty(name = "stock.execution.virtual-threads", havingValue = "true")
+public class ExecutionConfig {
+
+	/**
+	 * The application is built for Java 11, so the virtual thread executor of
+	 * Java 21 is looked up at runtime
+	 * 
+	 * @return {@link ExecutorService} starting a new virtual thread for each task
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService virtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Virtual threads require a Java 21 or later runtime, running on "
+					+ System.getProperty("java.version"), e);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Virtual threads are not available", e);
+		}
+	}
+
+	/**
+	 * 
+	 * @param virtualThreadExecutor - {@link ExecutorService} of virtual threads
+	 * @return {@link TomcatProtocolHandlerCustomizer} which processes every
+	 *         request on its own virtual thread
+	 */
+	@Bean
+	public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+			ExecutorService virtualThreadExecutor) {
+		return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+	}
+
+	/**
+	 * Replaces the auto-configured application task executor which Spring MVC
+	 * uses for async handlers
+	 * 
+	 * @param virtualThreadExecutor - {@link ExecutorService} of virtual threads
+	 * @return {@link AsyncTaskExecutor} of virtual threads
+	 */
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+		return new TaskExecutorAdapter(virtualThreadExecutor);
+	}
+}
@@ -0,0 +1,29 @@
+package com.stockapi.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.stockapi.domain.PooledSequenceGenerator;
+
+/**
+ * Passes the id allocation size of {@link PooledSequenceGenerator} from the
+ * {@code stock.id.*} keys to Hibernate
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Configuration
+public class JpaConfig {
+
+	/**
+	 * 
+	 * @param stockProperties - {@link StockProperties}
+	 * @return {@link HibernatePropertiesCustomizer} setting the id allocation size
+	 */
+	@Bean
+	public HibernatePropertiesCustomizer idAllocationHibernatePropertiesCustomizer(StockProperties stockProperties) {
+		return properties -> properties.put(PooledSequenceGenerator.ALLOCATION_SIZE,
+				String.valueOf(stockProperties.getId().getAllocationSize()));
+	}
+}
@@ -0,0 +1,80 @@
+package com.stockapi.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.stockapi.cache.StockCache;
+import com.stockapi.store.StockWriteBehind;
+import com.stockapi.stream.StockPriceStream;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Micrometer configuration for Stock API specific meters
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Configuration
+public class MetricsConfig {
+
+	/**
+	 * 
+	 * @param stockCache - {@link StockCache}
+	 * @return {@link MeterBinder} for the hit, miss, eviction and size meters of
+	 *         the stock cache
+	 */
+	@Bean
+	public MeterBinder stockCacheMetrics(StockCache stockCache) {
+		return registry -> {
+			FunctionCounter.builder("stock.cache.requests", stockCache, cache -> cache.stats().hitCount())
+					.tag("result", "hit")
+					.register(registry);
+			FunctionCounter.builder("stock.cache.requests", stockCache, cache -> cache.stats().missCount())
+					.tag("result", "miss")
+					.register(registry);
+			FunctionCounter.builder("stock.cache.evictions", stockCache, cache -> cache.stats().evictionCount())
+					.register(registry);
+			Gauge.builder("stock.cache.size", stockCache, StockCache::size)
+					.register(registry);
+		};
+	}
+
+	/**
+	 * 
+	 * @param stockPriceStream - {@link StockPriceStream}
+	 * @return {@link MeterBinder} for the number of price stream subscribers
+	 */
+	@Bean
+	public MeterBinder stockStreamMetrics(StockPriceStream stockPriceStream) {
+		return registry -> Gauge.builder("stock.stream.subscribers", stockPriceStream, StockPriceStream::getSubscriberCount)
+				.register(registry);
+	}
+
+	/**
+	 * 
+	 * @param writeBehind - {@link StockWriteBehind} if write-behind is enabled
+	 * @return {@link MeterBinder} for the pending, flushed, coalesced and failed
+	 *         updates of the write-behind buffer
+	 */
+	@Bean
+	public MeterBinder stockWriteBehindMetrics(ObjectProvider<StockWriteBehind> writeBehind) {
+		return registry -> writeBehind.ifAvailable(buffer -> {
+			Gauge.builder("stock.writebehind.pending", buffer, StockWriteBehind::getPendingCount)
+					.register(registry);
+			FunctionCounter.builder("stock.writebehind.flushes", buffer, StockWriteBehind::getFlushCount)
+					.register(registry);
+			FunctionCounter.builder("stock.writebehind.failures", buffer, StockWriteBehind::getFailedFlushCount)
+					.register(registry);
+			FunctionCounter.builder("stock.writebehind.updates", buffer, StockWriteBehind::getFlushedCount)
+					.tag("result", "flushed")
+					.register(registry);
+			FunctionCounter.builder("stock.writebehind.updates", buffer, StockWriteBehind::getCoalescedCount)
+					.tag("result", "coalesced")
+					.register(registry);
+		});
+	}
+}
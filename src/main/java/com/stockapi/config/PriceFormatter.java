@@ -0,0 +1,28 @@
+package com.stockapi.config;
+
+import java.util.Locale;
+
+import org.springframework.format.Formatter;
+import org.springframework.stereotype.Component;
+
+import com.stockapi.model.Price;
+
+/**
+ * Binds {@link Price} fields of the MVC forms and prints them in the views
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class PriceFormatter implements Formatter<Price> {
+
+	@Override
+	public Price parse(String text, Locale locale) {
+		return Price.parseLenient(text);
+	}
+
+	@Override
+	public String print(Price price, Locale locale) {
+		return price.toString();
+	}
+}
@@ -0,0 +1,318 @@
+package com.stockapi.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.core.io.Resource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for Stock API bound from the {@code stock.*} keys
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Data
+@ConfigurationProperties(prefix = "stock")
+public class StockProperties {
+
+	private Pagination pagination = new Pagination();
+
+	private Cache cache = new Cache();
+
+	private Stream stream = new Stream();
+
+	private History history = new History();
+
+	private Storage storage = new Storage();
+
+	private WriteBehind writeBehind = new WriteBehind();
+
+	private Http http = new Http();
+
+	private Execution execution = new Execution();
+
+	private Id id = new Id();
+
+	private Bulk bulk = new Bulk();
+
+	private Startup startup = new Startup();
+
+	/**
+	 * Keyset pagination settings for list endpoints and page size limit of the
+	 * stock list page
+	 */
+	@Data
+	public static class Pagination {
+
+		/**
+		 * Page size used when the request has no limit
+		 */
+		private int defaultLimit = 100;
+
+		/**
+		 * Upper bound for the requested page size
+		 */
+		private int maxLimit = 1000;
+
+		/**
+		 * Upper bound for the page size of the stock list page
+		 */
+		private int maxPageSize = 100;
+	}
+
+	/**
+	 * Read-through stock cache settings
+	 */
+	@Data
+	public static class Cache {
+
+		/**
+		 * Whether reads are served from the in-memory cache
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Maximum number of cached stocks, least recently used ones are evicted
+		 */
+		private long maximumSize = 100_000;
+
+		/**
+		 * Time to live of a cached stock after it is loaded or written
+		 */
+		private Duration ttl = Duration.ofMinutes(10);
+	}
+
+	/**
+	 * Server-sent events price stream settings
+	 */
+	@Data
+	public static class Stream {
+
+		/**
+		 * Maximum number of distinct stocks waiting to be sent to a single
+		 * subscriber, a subscriber falling further behind is disconnected
+		 */
+		private int bufferSize = 1000;
+
+		/**
+		 * Number of threads writing events to the subscribers
+		 */
+		private int threads = 4;
+
+		/**
+		 * Maximum time writing a single event to a subscriber may take, a
+		 * subscriber whose client does not read in time is disconnected so that it
+		 * does not hold a writer thread
+		 */
+		private Duration sendTimeout = Duration.ofSeconds(5);
+
+		/**
+		 * Time after which a subscription is closed and the client has to reconnect
+		 */
+		private Duration timeout = Duration.ofMinutes(30);
+	}
+
+	/**
+	 * In-memory price history settings
+	 */
+	@Data
+	public static class History {
+
+		/**
+		 * Whether accepted price updates are recorded
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Length of the bars price updates are folded into as they are recorded,
+		 * requested intervals must be multiples of it
+		 */
+		private Duration resolution = Duration.ofSeconds(1);
+
+		/**
+		 * Maximum number of bars kept per stock, the oldest half is dropped once it
+		 * is reached
+		 */
+		private int maxBarsPerStock = 100_000;
+
+		/**
+		 * Maximum number of bars allocated across all the stocks, a stock which
+		 * cannot grow within it shrinks and gives half of its bars back
+		 */
+		private long maxBars = 5_000_000;
+
+		/**
+		 * Maximum number of bars a single history request may cover, larger
+		 * requests are rejected
+		 */
+		private int maxBarsPerRequest = 10_000;
+	}
+
+	/**
+	 * Storage backend settings
+	 */
+	@Data
+	public static class Storage {
+
+		/**
+		 * Storage backend serving reads and price updates
+		 */
+		private Mode mode = Mode.JPA;
+
+		/**
+		 * Interval of writing the changed quotes of the memory backend to the
+		 * database, or of forcing the quote files of the mapped backend to the disk
+		 */
+		private Duration snapshotInterval = Duration.ofSeconds(5);
+
+		/**
+		 * Directory of the quote files of the mapped backend
+		 */
+		private Path directory = Paths.get("data");
+
+		public enum Mode {
+			/**
+			 * Every read and write goes through the JPA repository
+			 */
+			JPA,
+			/**
+			 * Quotes live in an in-memory quote store and are snapshotted to the
+			 * database asynchronously
+			 */
+			MEMORY,
+			/**
+			 * Stocks live in memory-mapped files which are their system of
+			 * record, the database is not used
+			 */
+			MAPPED
+		}
+	}
+
+	/**
+	 * Write-behind settings of single price updates on the JPA backend
+	 */
+	@Data
+	public static class WriteBehind {
+
+		/**
+		 * Whether price updates are coalesced in memory and written in batches
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Interval of flushing the pending updates
+		 */
+		private Duration flushInterval = Duration.ofSeconds(1);
+
+		/**
+		 * Number of pending updates which triggers a flush before the interval
+		 * elapses, also the size of a single flush transaction
+		 */
+		private int batchSize = 500;
+
+		/**
+		 * Maximum number of stocks with a pending update, further updates are written
+		 * synchronously until a flush makes room
+		 */
+		private int maxPending = 100_000;
+	}
+
+	/**
+	 * HTTP caching settings of stock reads
+	 */
+	@Data
+	public static class Http {
+
+		/**
+		 * How long clients and shared caches may reuse a stock response without
+		 * revalidating it, zero requires revalidation on every use
+		 */
+		private Duration maxAge = Duration.ofSeconds(1);
+
+		/**
+		 * Whether the full stock list is kept serialized and gzip compressed in
+		 * memory between changes instead of being streamed from the storage on
+		 * every read
+		 */
+		private boolean listSnapshot = false;
+
+		/**
+		 * Minimum time between two rebuilds of the list snapshot, reads within it
+		 * may be served a list which misses the latest changes
+		 */
+		private Duration listSnapshotInterval = Duration.ofSeconds(1);
+	}
+
+	/**
+	 * Request execution settings
+	 */
+	@Data
+	public static class Execution {
+
+		/**
+		 * Whether requests and async handlers run on virtual threads, requires a
+		 * Java 21 or later runtime
+		 */
+		private boolean virtualThreads = false;
+	}
+
+	/**
+	 * Id generation settings of the entities
+	 */
+	@Data
+	public static class Id {
+
+		/**
+		 * Number of ids allocated by a single sequence call, best kept equal to the
+		 * JDBC batch size so that a batch of inserts needs one sequence call
+		 */
+		private int allocationSize = 50;
+	}
+
+	/**
+	 * Bulk import settings
+	 */
+	@Data
+	public static class Bulk {
+
+		/**
+		 * Number of rows parsed together and created in a single transaction, the
+		 * next chunk is parsed while the previous one is written
+		 */
+		private int chunkSize = 1000;
+
+		/**
+		 * Maximum number of failed rows listed in the import response
+		 */
+		private int maxErrors = 1000;
+	}
+
+	/**
+	 * Startup settings, the fast profile turns off everything the REST API does
+	 * not need
+	 */
+	@Data
+	public static class Startup {
+
+		/**
+		 * Binary stock snapshot loaded into an empty database on startup instead of
+		 * the sample stocks, such as file:stocks.snapshot
+		 */
+		private Resource snapshot;
+
+		/**
+		 * Whether the Swagger documentation is served
+		 */
+		private boolean swagger = true;
+
+		/**
+		 * Whether the Thymeleaf stock pages are served
+		 */
+		private boolean pages = true;
+	}
+}
@@ -1,8 +1,13 @@
 package com.stockapi.config;
 
+import java.math.BigDecimal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.stockapi.model.Price;
+
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -13,13 +18,15 @@ import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 /**
- * Swagger configuration for Stock API
+ * Swagger configuration for Stock API, left out if
+ * {@code stock.startup.swagger} is disabled
  * 
  * @author gorkemdemiray
  * 
  */
 @Configuration
 @EnableSwagger2
+@ConditionalOnProperty(name = "stock.startup.swagger", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
 
 	/**
@@ -32,6 +39,7 @@ public class SwaggerConfig {
 				.select()
 				.apis(RequestHandlerSelectors.basePackage("com.stockapi.controller"))
 				.paths(PathSelectors.any()).build()
+				.directModelSubstitute(Price.class, BigDecimal.class)
 				.apiInfo(apiInfo());
 	}
 
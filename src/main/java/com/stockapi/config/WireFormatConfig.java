@@ -0,0 +1,55 @@
+package com.stockapi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Binary wire formats selected by content negotiation. Responses are written
+ * as CBOR for {@code Accept: application/cbor} and as Smile for
+ * {@code Accept: application/x-jackson-smile}, request bodies are read the
+ * same way by their {@code Content-Type}. Both use the application Jackson
+ * settings except that dates are written as numeric arrays instead of ISO
+ * text.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Configuration
+public class WireFormatConfig {
+
+	/**
+	 * 
+	 * @param builder - {@link Jackson2ObjectMapperBuilder} configured by the
+	 *                application
+	 * @return {@link MappingJackson2CborHttpMessageConverter}
+	 */
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder.factory(new CBORFactory())));
+	}
+
+	/**
+	 * 
+	 * @param builder - {@link Jackson2ObjectMapperBuilder} configured by the
+	 *                application
+	 * @return {@link MappingJackson2SmileHttpMessageConverter}
+	 */
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder.factory(new SmileFactory())));
+	}
+
+	private static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder) {
+		return builder.createXmlMapper(false)
+				.featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+	}
+}
@@ -3,6 +3,11 @@ package com.stockapi.controller;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -26,27 +31,41 @@ import com.stockapi.model.StockResponse;
 import com.stockapi.service.StockService;
 
 /**
- * MVC controller for Stock API
+ * MVC controller for Stock API, left out if {@code stock.startup.pages} is
+ * disabled
  * 
  * @author gorkemdemiray
  *
  */
 @Controller
 @RequestMapping
+@ConditionalOnProperty(name = "stock.startup.pages", havingValue = "true", matchIfMissing = true)
 public class StockController {
 	
 	@Autowired
 	private StockService stockService;
 
 	/**
-	 * Returns list of stock responses
+	 * Returns a page of stock responses, sorted by the given property and
+	 * filtered by name
 	 * 
-	 * @param model - contains list of all {@link StockResponse}
+	 * @param name     - text the names should contain ignoring case
+	 * @param pageable - {@link Pageable} with page number, size and sort by name,
+	 *                 currentPrice or lastUpdate
+	 * @param model    - contains {@link Page} of {@link StockResponse}, the filter
+	 *                 and the sort
 	 * @return view name
 	 */
 	@GetMapping({"", "/stocks/list"})
-	public String getStocks(Model model) {
-		model.addAttribute("stocks", stockService.getStocks());
+	public String getStocks(@RequestParam(required = false) String name,
+			@PageableDefault(size = 20, sort = "name") Pageable pageable, Model model) {
+		Page<StockResponse> page = stockService.getStocks(name, pageable);
+		Sort.Order order = page.getSort().stream().findFirst().orElse(Sort.Order.asc("name"));
+		model.addAttribute("page", page);
+		model.addAttribute("stocks", page.getContent());
+		model.addAttribute("name", name);
+		model.addAttribute("sortProperty", order.getProperty());
+		model.addAttribute("sortDirection", order.getDirection().name().toLowerCase());
 		return "stocks/list";
 	}
 	
@@ -1,24 +1,59 @@
 package com.stockapi.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.stockapi.bulk.BulkFormat;
+import com.stockapi.bulk.StockExporter;
+import com.stockapi.bulk.StockImporter;
+import com.stockapi.cache.StockListSnapshot;
+import com.stockapi.cache.StockTableVersion;
+import com.stockapi.config.StockProperties;
+import com.stockapi.exception.StockBadRequestException;
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.model.BatchItemResponse;
+import com.stockapi.model.ImportResponse;
+import com.stockapi.model.OhlcBar;
 import com.stockapi.model.PriceRequest;
 import com.stockapi.model.StockRequest;
 import com.stockapi.model.StockResponse;
 import com.stockapi.service.StockService;
+import com.stockapi.stream.StockPriceStream;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -36,28 +71,174 @@ public class StockRestController {
 	
 	@Autowired
 	private StockService stockService;
+	
+	@Autowired
+	private StockPriceStream stockPriceStream;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private StockTableVersion stockTableVersion;
+	
+	@Autowired
+	private StockProperties stockProperties;
+	
+	@Autowired(required = false)
+	private StockListSnapshot stockListSnapshot;
+	
+	@Autowired
+	private StockImporter stockImporter;
+	
+	@Autowired
+	private StockExporter stockExporter;
 
 	/**
-	 * Returns list of stock responses
+	 * Returns a page of stock responses ordered by id, or {@code NOT_MODIFIED} if
+	 * no stock has changed since the version the client has
 	 * 
-	 * @return list of all {@link StockResponse}
+	 * @param after      - id of the last stock of the previous page
+	 * @param limit      - page size
+	 * @param webRequest - {@link WebRequest} carrying the conditional headers
+	 * @return list of {@link StockResponse} after the given id
 	 */
 	@GetMapping
-	@ApiOperation(value = "Gets all the stock list")
-	public ResponseEntity<List<StockResponse>> getStocks() {
-		return ResponseEntity.ok().body(stockService.getStocks());
+	@ApiOperation(value = "Gets the stock list page by page", notes = "Pass the id of the last stock as 'after' to get the next page. "
+			+ "Pass the ETag as 'If-None-Match' to get an empty 304 response if nothing has changed")
+	public ResponseEntity<List<StockResponse>> getStocks(@RequestParam(defaultValue = "0") Long after,
+			@RequestParam(required = false) Integer limit, WebRequest webRequest) {
+		if (isNotModified(webRequest))
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(getCacheControl()).build();
+		return ResponseEntity.ok().cacheControl(getCacheControl()).body(stockService.getStocks(after, limit));
+	}
+	
+	/**
+	 * Streams all the stock responses as a JSON array, each row is written to the
+	 * response as soon as it is read from the database. With the list snapshot
+	 * enabled the pre-serialized array is written instead, gzip compressed if the
+	 * client accepts it and tagged with the table version it was built for.
+	 * Answers {@code NOT_MODIFIED} if no stock has changed since the version the
+	 * client has
+	 * 
+	 * @param webRequest - {@link WebRequest} carrying the conditional headers
+	 * @return list of all {@link StockResponse}
+	 */
+	@GetMapping("/all")
+	@ApiOperation(value = "Streams all the stock list")
+	public ResponseEntity<StreamingResponseBody> getAllStocks(WebRequest webRequest) {
+		if (stockListSnapshot != null)
+			return getSnapshot(webRequest);
+		if (isNotModified(webRequest))
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(getCacheControl()).build();
+		StreamingResponseBody body = outputStream -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+				generator.writeStartArray();
+				stockService.streamStocks(stockResponse -> writeStock(generator, stockResponse));
+				generator.writeEndArray();
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).cacheControl(getCacheControl()).body(body);
+	}
+	
+	/**
+	 * Creates the stocks of a CSV or newline delimited JSON request body, rows are
+	 * read and created chunk by chunk
+	 * 
+	 * @param contentType - {@code text/csv} or {@code application/x-ndjson}
+	 * @param inputStream - request body
+	 * @return {@link ImportResponse} with the failed rows
+	 * @throws IOException if the request body can not be read
+	 */
+	@PostMapping(path = "/import", consumes = { BulkFormat.CSV_VALUE, BulkFormat.NDJSON_VALUE })
+	@ApiOperation(value = "Imports stocks from CSV or newline delimited JSON", notes = "CSV needs a header row with 'name' and 'currentPrice' columns. "
+			+ "Invalid rows and already existing names are reported with their line numbers and skipped")
+	public ResponseEntity<ImportResponse> importStocks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			InputStream inputStream) throws IOException {
+		return ResponseEntity.ok().body(stockImporter.importStocks(inputStream, MediaType.parseMediaType(contentType)));
+	}
+	
+	/**
+	 * Streams all the stocks as CSV, newline delimited JSON or a binary snapshot
+	 * 
+	 * @param format - csv, ndjson or snapshot
+	 * @return all {@link StockResponse} in the given format
+	 */
+	@GetMapping("/export")
+	@ApiOperation(value = "Exports all the stocks as CSV, newline delimited JSON or a binary snapshot", notes = "Pass 'format' as csv, ndjson or snapshot. "
+			+ "A snapshot can be loaded on startup with 'stock.startup.snapshot'")
+	public ResponseEntity<StreamingResponseBody> exportStocks(@RequestParam(defaultValue = "csv") String format) {
+		BulkFormat bulkFormat = BulkFormat.of(format);
+		return ResponseEntity.ok()
+				.contentType(bulkFormat.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=stocks." + bulkFormat.name().toLowerCase(Locale.ROOT))
+				.body(outputStream -> stockExporter.exportStocks(outputStream, bulkFormat));
+	}
+	
+	/**
+	 * Subscribes to the price changes of the given stocks as server-sent events.
+	 * Intermediate changes are conflated if the client falls behind
+	 * 
+	 * @param ids - ids of the stocks to receive, all stocks if not given
+	 * @return {@link SseEmitter} sending {@link StockResponse} events
+	 */
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@ApiOperation(value = "Streams the stock price changes as server-sent events", notes = "Pass 'ids' to receive only the given stocks")
+	public SseEmitter streamStocks(@RequestParam(required = false) Set<Long> ids) {
+		return stockPriceStream.subscribe(ids == null ? Collections.emptySet() : ids);
 	}
 	
 	/**
-	 * Returns stock response
+	 * Returns the stocks whose name starts with or contains the given text
+	 * ignoring case
+	 * 
+	 * @param q     - text to search
+	 * @param limit - maximum number of results
+	 * @return list of matching {@link StockResponse}, prefix matches first
+	 */
+	@GetMapping("/search")
+	@ApiOperation(value = "Searches the stocks by name", notes = "Names starting with 'q' come first, followed by the names containing it, case is ignored")
+	public ResponseEntity<List<StockResponse>> searchStocks(@RequestParam String q,
+			@RequestParam(required = false) Integer limit) {
+		return ResponseEntity.ok().body(stockService.searchStocks(q, limit));
+	}
+	
+	/**
+	 * Returns stock response with its ETag and last update time, an empty
+	 * {@code NOT_MODIFIED} response is sent instead if the client has the same
+	 * version
 	 * 
 	 * @param id - stock id
 	 * @return {@link StockResponse} due to given id
 	 */
 	@GetMapping("/{id}")
-	@ApiOperation(value = "Gets the stock due to the given id")
+	@ApiOperation(value = "Gets the stock due to the given id", notes = "Pass the ETag as 'If-None-Match' to get an empty 304 response if the stock has not changed")
 	public ResponseEntity<StockResponse> getStock(@PathVariable Long id) {
-		return ResponseEntity.ok().body(stockService.getStock(id));
+		StockResponse stockResponse = stockService.getStock(id);
+		ResponseEntity.BodyBuilder builder = withETag(ResponseEntity.ok(), stockResponse).cacheControl(getCacheControl());
+		if (stockResponse != null && stockResponse.getLastUpdate() != null)
+			builder.lastModified(stockResponse.getLastUpdate().atZone(ZoneId.systemDefault()));
+		return builder.body(stockResponse);
+	}
+	
+	/**
+	 * Returns price history of the stock as OHLC bars
+	 * 
+	 * @param id       - stock id
+	 * @param from     - inclusive start time, one day before the end by default
+	 * @param to       - exclusive end time, now by default
+	 * @param interval - bar length such as 1m, 5m, 1h or 1d
+	 * @return list of {@link OhlcBar} ordered by time, {@code BAD_REQUEST} if
+	 *         the range holds too many bars
+	 */
+	@GetMapping("/{id}/history")
+	@ApiOperation(value = "Gets the price history of the stock as OHLC bars", notes = "Intervals without any price update are skipped. "
+			+ "The interval must be a multiple of 'stock.history.resolution', requests covering more than "
+			+ "'stock.history.max-bars-per-request' bars are rejected")
+	public ResponseEntity<List<OhlcBar>> getHistory(@PathVariable Long id,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(defaultValue = "1m") String interval) {
+		return ResponseEntity.ok().body(stockService.getHistory(id, from, to, parseInterval(interval)));
 	}
 	
 	/**
@@ -73,16 +254,183 @@ public class StockRestController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(stockService.createStock(stockRequest));
 	}
 	
+	/**
+	 * Adds new stocks in a single transaction, each item is validated on its own
+	 * 
+	 * @param stockRequests - list of {@link StockRequest} which have name and
+	 *                      current price
+	 * @return list of {@link BatchItemResponse} in request order
+	 */
+	@PostMapping("/batch")
+	@ApiOperation(value = "Creates new stocks with the given values", notes = "Invalid or already existing items are reported and skipped")
+	public ResponseEntity<List<BatchItemResponse>> createStocks(@RequestBody List<StockRequest> stockRequests) {
+		return ResponseEntity.ok().body(stockService.createStocks(stockRequests));
+	}
+	
+	/**
+	 * Updates the stock prices in a single transaction, each item is validated on
+	 * its own
+	 * 
+	 * @param priceRequests - list of {@link PriceRequest} which have id and current
+	 *                      price
+	 * @return list of {@link BatchItemResponse} in request order
+	 */
+	@PutMapping("/prices")
+	@ApiOperation(value = "Updates current prices of the stocks with the given values", notes = "Invalid items or unknown ids are reported and skipped")
+	public ResponseEntity<List<BatchItemResponse>> updateStocks(@RequestBody List<PriceRequest> priceRequests) {
+		return ResponseEntity.ok().body(stockService.updateStocks(priceRequests));
+	}
+	
 	/**
 	 * Updates the stock price if field is valid, otherwise throws exception
 	 * 
 	 * @param id           - stock id
+	 * @param ifMatch      - ETag of the stock the client has read, the update
+	 *                     fails with {@code PRECONDITION_FAILED} if the stock has
+	 *                     changed since
 	 * @param priceRequest {@link PriceRequest} which has current price
 	 * @return {@link StockResponse}
 	 */
 	@PutMapping("/{id}")
-	@ApiOperation(value = "Updates current price of the stock with the given value", notes = "Current price should be valid")
-	public ResponseEntity<StockResponse> updateStock(@PathVariable Long id, @Valid @RequestBody PriceRequest priceRequest) {
-		return ResponseEntity.status(HttpStatus.NO_CONTENT).body(stockService.updateStock(id, priceRequest));
+	@ApiOperation(value = "Updates current price of the stock with the given value", notes = "Current price should be valid. "
+			+ "Pass the ETag as 'If-Match' to update only the version read, or a 'timestamp' to update only if no newer price is stored")
+	public ResponseEntity<StockResponse> updateStock(@PathVariable Long id,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@Valid @RequestBody PriceRequest priceRequest) {
+		StockResponse stockResponse = stockService.updateStock(id, priceRequest, getVersion(id, ifMatch));
+		return withETag(ResponseEntity.status(HttpStatus.NO_CONTENT), stockResponse).body(stockResponse);
+	}
+	
+	/**
+	 * Writes the list snapshot as it is, the compressed bytes are marked with
+	 * their content encoding so that the server does not compress them again.
+	 * The conditional headers are checked against the version of the snapshot,
+	 * which may lag behind the table within the rebuild interval
+	 * 
+	 * @param webRequest - {@link WebRequest} carrying the conditional headers
+	 * @return pre-serialized list of all {@link StockResponse}
+	 */
+	private ResponseEntity<StreamingResponseBody> getSnapshot(WebRequest webRequest) {
+		StockListSnapshot.Snapshot snapshot = stockListSnapshot.get();
+		if (webRequest.checkNotModified("\"" + snapshot.getVersion() + "\"", snapshot.getLastModified()))
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(getCacheControl()).build();
+		boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		byte[] bytes = gzip ? snapshot.getGzip() : snapshot.getJson();
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.contentLength(bytes.length)
+				.cacheControl(getCacheControl())
+				.varyBy(HttpHeaders.ACCEPT_ENCODING);
+		if (gzip)
+			builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		return builder.body(outputStream -> outputStream.write(bytes));
+	}
+	
+	/**
+	 * Checks whether the Accept-Encoding header allows gzip
+	 * 
+	 * @param acceptEncoding - Accept-Encoding header value
+	 * @return true unless the header is missing or excludes gzip
+	 */
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null)
+			return false;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			String name = parts[0].trim();
+			if (!name.equalsIgnoreCase("gzip") && !name.equals("*"))
+				continue;
+			for (int i = 1; i < parts.length; i++) {
+				String parameter = parts[i].replace(" ", "");
+				if (parameter.startsWith("q=") && parameter.substring(2).matches("0(\\.0*)?"))
+					return false;
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Sets the version of the stock as ETag, the same tag is accepted by
+	 * {@code If-Match} on updates
+	 * 
+	 * @param builder       - {@link ResponseEntity.BodyBuilder}
+	 * @param stockResponse - {@link StockResponse}
+	 * @return the given builder
+	 */
+	private ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, StockResponse stockResponse) {
+		if (stockResponse != null && stockResponse.getVersion() != null)
+			builder.eTag("\"" + stockResponse.getVersion() + "\"");
+		return builder;
+	}
+	
+	/**
+	 * Checks the conditional headers of a list request against the version of the
+	 * stock table, sets the ETag and Last-Modified headers of the response
+	 * 
+	 * @param webRequest - {@link WebRequest}
+	 * @return true if the client already has the current list
+	 */
+	private boolean isNotModified(WebRequest webRequest) {
+		return webRequest.checkNotModified("\"" + stockTableVersion.getVersion() + "\"", stockTableVersion.getLastModified());
+	}
+	
+	/**
+	 * 
+	 * @return {@link CacheControl} of stock reads
+	 */
+	private CacheControl getCacheControl() {
+		Duration maxAge = stockProperties.getHttp().getMaxAge();
+		if (maxAge.isZero() || maxAge.isNegative())
+			return CacheControl.noCache();
+		return CacheControl.maxAge(maxAge).mustRevalidate();
+	}
+	
+	/**
+	 * Parses the interval of a history request
+	 * 
+	 * @param interval - interval such as 1m, 5m, 1h or 1d
+	 * @return {@link Duration}
+	 */
+	private static Duration parseInterval(String interval) {
+		try {
+			return DurationStyle.detectAndParse(interval);
+		} catch (IllegalArgumentException e) {
+			throw new StockBadRequestException("Illegal format for interval : " + interval);
+		}
+	}
+	
+	/**
+	 * Parses the version from the If-Match header
+	 * 
+	 * @param id      - stock id
+	 * @param ifMatch - If-Match header value
+	 * @return version or null if the header is missing or matches any version
+	 */
+	private Long getVersion(Long id, String ifMatch) {
+		if (ifMatch == null || ifMatch.trim().equals("*"))
+			return null;
+		String eTag = ifMatch.trim();
+		if (eTag.startsWith("W/"))
+			eTag = eTag.substring(2);
+		try {
+			return Long.valueOf(eTag.replace("\"", ""));
+		} catch (NumberFormatException e) {
+			throw new StockPreconditionFailedException("Stock version does not match for the id : " + id);
+		}
+	}
+	
+	/**
+	 * Writes stock response to the given generator
+	 * 
+	 * @param generator     - {@link JsonGenerator}
+	 * @param stockResponse - {@link StockResponse}
+	 */
+	private void writeStock(JsonGenerator generator, StockResponse stockResponse) {
+		try {
+			generator.writeObject(stockResponse);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 }
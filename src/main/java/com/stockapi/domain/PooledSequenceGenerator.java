@@ -0,0 +1,43 @@
+package com.stockapi.domain;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence generator with the pooled optimizer whose allocation size is read
+ * from the {@value #ALLOCATION_SIZE} Hibernate setting, so that a single
+ * sequence call hands out ids for a whole insert batch. Entities declare it
+ * with their own sequence name:
+ * 
+ * <pre>
+ * &#64;GenericGenerator(name = "stock_seq", strategy = "com.stockapi.domain.PooledSequenceGenerator",
+ * 		parameters = &#64;Parameter(name = "sequence_name", value = "stock_seq"))
+ * </pre>
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	/**
+	 * Hibernate setting holding the number of ids allocated by a single sequence
+	 * call
+	 */
+	public static final String ALLOCATION_SIZE = "stock.id.allocation_size";
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		Object allocationSize = serviceRegistry.getService(ConfigurationService.class).getSettings().get(ALLOCATION_SIZE);
+		if (allocationSize != null && !params.containsKey(INCREMENT_PARAM))
+			params.setProperty(INCREMENT_PARAM, allocationSize.toString());
+		if (!params.containsKey(OPT_PARAM))
+			params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+		super.configure(type, params, serviceRegistry);
+	}
+}
@@ -0,0 +1,29 @@
+package com.stockapi.domain;
+
+import java.math.BigDecimal;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import com.stockapi.model.Price;
+
+/**
+ * Stores {@link Price} in a decimal column, the only place where prices are
+ * converted from and to {@link BigDecimal}
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Converter
+public class PriceConverter implements AttributeConverter<Price, BigDecimal> {
+
+	@Override
+	public BigDecimal convertToDatabaseColumn(Price price) {
+		return price == null ? null : price.toBigDecimal();
+	}
+
+	@Override
+	public Price convertToEntityAttribute(BigDecimal value) {
+		return Price.of(value);
+	}
+}
@@ -1,12 +1,24 @@
 package com.stockapi.domain;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.stockapi.model.Price;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,7 +26,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * Stock entity object
+ * Stock entity object, kept in the second-level cache and updated there when
+ * a transaction changing it commits
  * 
  * @author gorkemdemiray
  *
@@ -24,13 +37,24 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_stock_name", columnNames = "name"))
 public class Stock {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_seq")
+	@GenericGenerator(name = "stock_seq", strategy = "com.stockapi.domain.PooledSequenceGenerator",
+			parameters = @Parameter(name = "sequence_name", value = "stock_seq"))
 	private Long id;
 	
+	@Column(nullable = false)
 	private String name;
-	private BigDecimal currentPrice;
+	
+	@Convert(converter = PriceConverter.class)
+	private Price currentPrice;
 	private LocalDateTime lastUpdate;
+	
+	@Version
+	private Long version;
 }
@@ -0,0 +1,17 @@
+package com.stockapi.event;
+
+import com.stockapi.model.StockResponse;
+
+import lombok.Data;
+
+/**
+ * Application event published after a stock is created or its price is updated
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Data
+public class StockChangedEvent {
+
+	private final StockResponse stock;
+}
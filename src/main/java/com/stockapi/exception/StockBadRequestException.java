@@ -0,0 +1,21 @@
+package com.stockapi.exception;
+
+/**
+ * Exception to handle if a request parameter is not acceptable
+ * 
+ * @author gorkemdemiray
+ *
+ */
+public class StockBadRequestException extends RuntimeException {
+
+	private static final long serialVersionUID = 4180512637306482871L;
+
+	public StockBadRequestException() {
+		super();
+	}
+
+	public StockBadRequestException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.stockapi.exception;
+
+/**
+ * Exception to handle if the stock has been changed by a concurrent or newer update
+ * 
+ * @author gorkemdemiray
+ *
+ */
+public class StockConflictException extends RuntimeException {
+
+	private static final long serialVersionUID = -2761208137410823406L;
+
+	public StockConflictException() {
+		super();
+	}
+
+	public StockConflictException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.stockapi.exception;
+
+/**
+ * Exception to handle if the stock version does not match the expected one
+ * 
+ * @author gorkemdemiray
+ *
+ */
+public class StockPreconditionFailedException extends RuntimeException {
+
+	private static final long serialVersionUID = 6517385023960315374L;
+
+	public StockPreconditionFailedException() {
+		super();
+	}
+
+	public StockPreconditionFailedException(String message) {
+		super(message);
+	}
+
+}
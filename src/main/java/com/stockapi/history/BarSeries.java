@@ -0,0 +1,274 @@
+package com.stockapi.history;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rolling OHLC bars of a single stock at a fixed resolution, kept in parallel
+ * primitive arrays with start times as epoch milliseconds and prices in cents.
+ * Every tick only updates the open bar, which is appended to the arrays once a
+ * tick of a later bar arrives, so queries read at most one bar per resolution
+ * however many ticks it had. Appends are serialized, reads are lock free: a
+ * reader takes the current block and only looks at the first {@code size}
+ * bars which are never modified again, the open bar is an immutable object
+ * replaced on every tick.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+final class BarSeries {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final long resolution;
+	private final int maxBars;
+	private final AtomicLong budget;
+	private volatile Block block;
+	private volatile Bar open;
+
+	/**
+	 * 
+	 * @param resolution - bar length in milliseconds
+	 * @param maxBars    - maximum number of closed bars kept
+	 * @param budget     - number of bars all the series may still allocate,
+	 *                   shared by the series of all the stocks
+	 */
+	BarSeries(long resolution, int maxBars, AtomicLong budget) {
+		this.resolution = resolution;
+		this.maxBars = Math.max(2, maxBars);
+		this.budget = budget;
+		int capacity = Math.min(INITIAL_CAPACITY, this.maxBars);
+		this.block = new Block(reserve(capacity) ? capacity : 0, 0);
+	}
+
+	/**
+	 * Adds a tick to the open bar, or closes it and opens the next one if the
+	 * tick is past its end. A time earlier than the open bar is counted in it so
+	 * the series stays ordered. The closed bar is dropped if the series has no
+	 * room and cannot get any from the budget
+	 * 
+	 * @param time  - epoch milliseconds
+	 * @param price - price in cents
+	 */
+	synchronized void append(long time, long price) {
+		Bar current = open;
+		if (current != null && time < current.start + resolution) {
+			open = current.add(price);
+			return;
+		}
+		if (current != null) {
+			Block target = block;
+			if (target.size == target.starts.length) {
+				target = grow(target);
+				block = target;
+			}
+			if (target.size < target.starts.length) {
+				target.set(target.size, current);
+				target.size++;
+			}
+		}
+		open = new Bar(time - Math.floorMod(time, resolution), price);
+	}
+
+	/**
+	 * Merges the bars starting between the given times into bars of the given
+	 * interval aligned to the epoch
+	 * 
+	 * @param from     - inclusive start in epoch milliseconds
+	 * @param to       - exclusive end in epoch milliseconds
+	 * @param interval - bar length in milliseconds, a multiple of the resolution
+	 * @param consumer - receives every merged bar
+	 */
+	void aggregate(long from, long to, long interval, BarConsumer consumer) {
+		// the open bar is read first: once it is replaced the closed one is
+		// already in the block, so at worst it is seen twice and skipped
+		Bar last = open;
+		Block current = block;
+		int size = current.size;
+
+		Merger merger = new Merger(interval, consumer);
+		for (int i = lowerBound(current.starts, size, from); i < size && current.starts[i] < to; i++)
+			merger.add(current.starts[i], current.opens[i], current.highs[i], current.lows[i], current.closes[i],
+					current.counts[i]);
+		if (last != null && last.start >= from && last.start < to && (size == 0 || current.starts[size - 1] != last.start))
+			merger.add(last.start, last.open, last.high, last.low, last.close, last.count);
+		merger.finish();
+	}
+
+	/**
+	 * 
+	 * @return number of bars kept including the open one
+	 */
+	int size() {
+		return block.size + (open == null ? 0 : 1);
+	}
+
+	/**
+	 * Doubles the capacity, or allocates the initial one, if the series and the
+	 * shared budget allow it. At its own maximum the series drops the oldest
+	 * half of the bars. If the budget is used up the series shrinks to half the
+	 * capacity keeping the newest quarter of the bars and gives the other half
+	 * back to the budget, a series without any capacity stays empty
+	 */
+	private Block grow(Block current) {
+		int length = current.starts.length;
+		int capacity = length == 0 ? Math.min(INITIAL_CAPACITY, maxBars) : (int) Math.min((long) length * 2, maxBars);
+		if (capacity > length && reserve(capacity - length))
+			return current.copy(capacity, 0, current.size);
+		if (capacity == length) {
+			int keep = current.size / 2;
+			return current.copy(length, current.size - keep, keep);
+		}
+		if (length == 0)
+			return current;
+		int shrunk = length / 2;
+		int keep = Math.min(current.size, shrunk / 2);
+		Block block = current.copy(shrunk, current.size - keep, keep);
+		budget.addAndGet(length - shrunk);
+		return block;
+	}
+
+	private boolean reserve(int bars) {
+		long available;
+		do {
+			available = budget.get();
+			if (available < bars)
+				return false;
+		} while (!budget.compareAndSet(available, available - bars));
+		return true;
+	}
+
+	private static int lowerBound(long[] starts, int size, long time) {
+		int low = 0, high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] < time)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Receives aggregated bars, prices are in cents
+	 */
+	@FunctionalInterface
+	interface BarConsumer {
+
+		void accept(long start, long open, long high, long low, long close, int count);
+	}
+
+	/**
+	 * Open bar, replaced as a whole on every tick
+	 */
+	private static final class Bar {
+
+		private final long start;
+		private final long open;
+		private final long high;
+		private final long low;
+		private final long close;
+		private final int count;
+
+		private Bar(long start, long price) {
+			this(start, price, price, price, price, 1);
+		}
+
+		private Bar(long start, long open, long high, long low, long close, int count) {
+			this.start = start;
+			this.open = open;
+			this.high = high;
+			this.low = low;
+			this.close = close;
+			this.count = count;
+		}
+
+		private Bar add(long price) {
+			return new Bar(start, open, Math.max(high, price), Math.min(low, price), price, count + 1);
+		}
+	}
+
+	/**
+	 * Closed bars, the first {@code size} entries are never modified again
+	 */
+	private static final class Block {
+
+		private final long[] starts;
+		private final long[] opens;
+		private final long[] highs;
+		private final long[] lows;
+		private final long[] closes;
+		private final int[] counts;
+		private volatile int size;
+
+		private Block(int capacity, int size) {
+			this.starts = new long[capacity];
+			this.opens = new long[capacity];
+			this.highs = new long[capacity];
+			this.lows = new long[capacity];
+			this.closes = new long[capacity];
+			this.counts = new int[capacity];
+			this.size = size;
+		}
+
+		private void set(int i, Bar bar) {
+			starts[i] = bar.start;
+			opens[i] = bar.open;
+			highs[i] = bar.high;
+			lows[i] = bar.low;
+			closes[i] = bar.close;
+			counts[i] = bar.count;
+		}
+
+		private Block copy(int capacity, int from, int length) {
+			Block block = new Block(capacity, length);
+			System.arraycopy(starts, from, block.starts, 0, length);
+			System.arraycopy(opens, from, block.opens, 0, length);
+			System.arraycopy(highs, from, block.highs, 0, length);
+			System.arraycopy(lows, from, block.lows, 0, length);
+			System.arraycopy(closes, from, block.closes, 0, length);
+			System.arraycopy(counts, from, block.counts, 0, length);
+			return block;
+		}
+	}
+
+	/**
+	 * Merges consecutive bars into bars of a longer interval
+	 */
+	private static final class Merger {
+
+		private final long interval;
+		private final BarConsumer consumer;
+		private long start, open, high, low, close;
+		private int count;
+
+		private Merger(long interval, BarConsumer consumer) {
+			this.interval = interval;
+			this.consumer = consumer;
+		}
+
+		private void add(long barStart, long barOpen, long barHigh, long barLow, long barClose, int barCount) {
+			long target = barStart - Math.floorMod(barStart, interval);
+			if (count > 0 && target == start) {
+				high = Math.max(high, barHigh);
+				low = Math.min(low, barLow);
+				close = barClose;
+				count += barCount;
+				return;
+			}
+			finish();
+			start = target;
+			open = barOpen;
+			high = barHigh;
+			low = barLow;
+			close = barClose;
+			count = barCount;
+		}
+
+		private void finish() {
+			if (count > 0)
+				consumer.accept(start, open, high, low, close, count);
+			count = 0;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.stockapi.history;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.event.StockChangedEvent;
+import com.stockapi.exception.StockBadRequestException;
+import com.stockapi.model.OhlcBar;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+
+/**
+ * In-memory price history of all stocks. Every accepted price change is
+ * folded into a rolling OHLC bar of the configured resolution in a primitive
+ * array backed series per stock, queries merge those bars into the requested
+ * interval. The bars of all the stocks share a global budget: a stock which
+ * cannot grow within it shrinks and gives bars back, a stock which gets no
+ * bars from it keeps only its open bar.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class PriceHistory {
+
+	private final StockProperties.History properties;
+	private final long resolution;
+	private final AtomicLong budget;
+	private final ConcurrentMap<Long, BarSeries> series = new ConcurrentHashMap<>();
+
+	public PriceHistory(StockProperties stockProperties) {
+		this.properties = stockProperties.getHistory();
+		this.resolution = properties.getResolution().toMillis();
+		if (resolution <= 0)
+			throw new IllegalArgumentException("History resolution must be at least one millisecond!");
+		this.budget = new AtomicLong(properties.getMaxBars());
+	}
+
+	/**
+	 * Records the changed stock price after the transaction which changed it
+	 * commits
+	 * 
+	 * @param event - {@link StockChangedEvent}
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onStockChanged(StockChangedEvent event) {
+		StockResponse stock = event.getStock();
+		append(stock.getId(), stock.getCurrentPrice(), stock.getLastUpdate());
+	}
+
+	/**
+	 * Adds a tick to the open bar of the given stock
+	 * 
+	 * @param id    - stock id
+	 * @param price - accepted price
+	 * @param time  - time of the price
+	 */
+	public void append(Long id, Price price, LocalDateTime time) {
+		if (!properties.isEnabled())
+			return;
+		series.computeIfAbsent(id, key -> new BarSeries(resolution, properties.getMaxBarsPerStock(), budget))
+				.append(toEpochMilli(time), price.getCents());
+	}
+
+	/**
+	 * Merges the bars of the given stock into OHLC bars of the given interval,
+	 * intervals without any tick are skipped. The range is rounded down to the
+	 * resolution
+	 * 
+	 * @param id       - stock id
+	 * @param from     - inclusive start time
+	 * @param to       - exclusive end time
+	 * @param interval - bar length, a multiple of the resolution
+	 * @return list of {@link OhlcBar} ordered by time
+	 */
+	public List<OhlcBar> getBars(Long id, LocalDateTime from, LocalDateTime to, Duration interval) {
+		if (interval.isNegative() || interval.isZero())
+			throw new StockBadRequestException("Interval must be greater than zero!");
+		long length = interval.toMillis();
+		if (length % resolution != 0)
+			throw new StockBadRequestException("Interval must be a multiple of " + resolution + "ms!");
+		long fromMillis = toEpochMilli(from), toMillis = toEpochMilli(to);
+		if (toMillis > fromMillis && (toMillis - fromMillis) / length + 1 > properties.getMaxBarsPerRequest())
+			throw new StockBadRequestException("Too many bars, at most " + properties.getMaxBarsPerRequest()
+					+ " can be requested at once!");
+		List<OhlcBar> bars = new ArrayList<>();
+		BarSeries barSeries = series.get(id);
+		if (barSeries == null)
+			return bars;
+		barSeries.aggregate(fromMillis - Math.floorMod(fromMillis, resolution),
+				toMillis - Math.floorMod(toMillis, resolution), length,
+				(start, open, high, low, close, count) -> bars.add(OhlcBar.builder()
+						.start(LocalDateTime.ofInstant(Instant.ofEpochMilli(start), ZoneId.systemDefault()))
+						.open(toPrice(open))
+						.high(toPrice(high))
+						.low(toPrice(low))
+						.close(toPrice(close))
+						.count(count)
+						.build()));
+		return bars;
+	}
+
+	private static long toEpochMilli(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	private static Price toPrice(long cents) {
+		return Price.ofCents(cents);
+	}
+}
@@ -0,0 +1,63 @@
+package com.stockapi.metrics;
+
+import java.util.stream.Stream;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records a {@code stock.repository} timer for every repository method call,
+ * tagged by method name and exception. A returned {@link Stream} is timed
+ * until it is closed so that the timer covers reading its rows
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+	private final MeterRegistry meterRegistry;
+
+	public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Times the repository method call, or a returned {@link Stream} until it is
+	 * closed
+	 * 
+	 * @param joinPoint - {@link ProceedingJoinPoint} of the repository method
+	 * @return result of the repository method
+	 * @throws Throwable if the repository method throws
+	 */
+	@Around("this(com.stockapi.repository.StockRepository) && execution(* org.springframework.data.repository.Repository+.*(..))")
+	public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String method = joinPoint.getSignature().getName();
+		Object result;
+		try {
+			result = joinPoint.proceed();
+		} catch (Throwable e) {
+			stop(sample, method, e.getClass().getSimpleName());
+			throw e;
+		}
+		if (result instanceof Stream)
+			return ((Stream<?>) result).onClose(() -> stop(sample, method, "none"));
+		stop(sample, method, "none");
+		return result;
+	}
+
+	private void stop(Timer.Sample sample, String method, String exception) {
+		sample.stop(Timer.builder("stock.repository")
+				.description("Stock repository method calls")
+				.tag("method", method)
+				.tag("exception", exception)
+				.register(meterRegistry));
+	}
+}
@@ -0,0 +1,28 @@
+package com.stockapi.model;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a single item within batch create and update operations
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResponse {
+
+	private int index;
+	private HttpStatus status;
+	private List<String> errorMessage;
+	private StockResponse stock;
+}
@@ -0,0 +1,27 @@
+package com.stockapi.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary of a bulk import, errors are listed up to a configured maximum while
+ * the counts cover all the rows
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportResponse {
+
+	private long rows;
+	private long created;
+	private long failed;
+	private List<ImportRowError> errors;
+}
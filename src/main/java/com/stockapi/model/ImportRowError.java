@@ -0,0 +1,24 @@
+package com.stockapi.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Errors of a single row within a bulk import
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+
+	private long line;
+	private List<String> errorMessage;
+}
@@ -0,0 +1,28 @@
+package com.stockapi.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Open, high, low and close prices of a stock within a time interval
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OhlcBar {
+
+	private LocalDateTime start;
+	private Price open;
+	private Price high;
+	private Price low;
+	private Price close;
+	private int count;
+}
@@ -0,0 +1,44 @@
+package com.stockapi.model;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.Payload;
+
+/**
+ * The annotated {@link Price} must be greater than zero, null is valid
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Documented
+@Target({ FIELD, PARAMETER })
+@Retention(RUNTIME)
+@Constraint(validatedBy = PositivePrice.Validator.class)
+public @interface PositivePrice {
+
+	String message() default "Price must be greater than zero!";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+
+	/**
+	 * Validator of {@link PositivePrice}
+	 */
+	class Validator implements ConstraintValidator<PositivePrice, Price> {
+
+		@Override
+		public boolean isValid(Price price, ConstraintValidatorContext context) {
+			return price == null || price.isPositive();
+		}
+	}
+}
@@ -0,0 +1,284 @@
+package com.stockapi.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Immutable price with two fraction digits kept as a scaled long in cents.
+ * Used instead of {@link BigDecimal} by the service, cache, store and history
+ * layers so that comparing and copying prices does not allocate. It is written
+ * and read as a plain JSON number by {@link PriceSerializer} and
+ * {@link PriceDeserializer}, the external format is unchanged. A number with
+ * more digits than a price holds is read as it is and rejected by
+ * {@link PriceDigits}, such a price has no cents.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@JsonSerialize(using = PriceSerializer.class)
+@JsonDeserialize(using = PriceDeserializer.class)
+public final class Price implements Comparable<Price>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Number of fraction digits
+	 */
+	public static final int SCALE = 2;
+
+	public static final Price ZERO = new Price(0, null);
+
+	private static final int MAX_INTEGER_DIGITS = 16;
+
+	private final long cents;
+
+	/**
+	 * Number read by {@link #parseLenient} which does not fit the cents, null
+	 * for every valid price
+	 */
+	private final BigDecimal outOfRange;
+
+	private Price(long cents, BigDecimal outOfRange) {
+		this.cents = cents;
+		this.outOfRange = outOfRange;
+	}
+
+	/**
+	 * 
+	 * @param cents - price in cents
+	 * @return {@link Price}
+	 */
+	public static Price ofCents(long cents) {
+		return cents == 0 ? ZERO : new Price(cents, null);
+	}
+
+	/**
+	 * Converts the given decimal, trailing zeros beyond two fraction digits are
+	 * dropped
+	 * 
+	 * @param value - decimal price, may be null
+	 * @return {@link Price} or null if the value is null
+	 * @throws ArithmeticException if the value has a non-zero digit beyond two
+	 *                             fraction digits or does not fit
+	 */
+	public static Price of(BigDecimal value) {
+		if (value == null)
+			return null;
+		return ofCents(value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+	}
+
+	/**
+	 * Parses a decimal number such as {@code 12}, {@code 12.5} or {@code -0.05}
+	 * 
+	 * @param text - price text
+	 * @return {@link Price}
+	 * @throws NumberFormatException if the text is not a number with at most two
+	 *                               significant fraction digits
+	 */
+	public static Price parse(CharSequence text) {
+		char[] chars = new char[text.length()];
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = text.charAt(i);
+		return parse(chars, 0, chars.length);
+	}
+
+	/**
+	 * Parses a decimal number from a character buffer without creating any
+	 * intermediate object. Numbers in exponent notation are rare and parsed
+	 * through {@link BigDecimal}
+	 * 
+	 * @param chars  - character buffer
+	 * @param offset - index of the first character
+	 * @param length - number of characters
+	 * @return {@link Price}
+	 * @throws NumberFormatException if the text is not a number with at most two
+	 *                               significant fraction digits
+	 */
+	public static Price parse(char[] chars, int offset, int length) {
+		int start = offset;
+		int end = offset + length;
+		while (start < end && Character.isWhitespace(chars[start]))
+			start++;
+		while (end > start && Character.isWhitespace(chars[end - 1]))
+			end--;
+		int i = start;
+		boolean negative = false;
+		if (i < end && (chars[i] == '-' || chars[i] == '+'))
+			negative = chars[i++] == '-';
+		long units = 0;
+		int digits = 0;
+		for (; i < end && isDigit(chars[i]); i++, digits++) {
+			if (digits == MAX_INTEGER_DIGITS)
+				throw invalid(chars, start, end);
+			units = units * 10 + (chars[i] - '0');
+		}
+		long fraction = 0;
+		if (i < end && chars[i] == '.') {
+			int fractionDigits = 0;
+			for (i++; i < end && isDigit(chars[i]); i++, fractionDigits++) {
+				if (fractionDigits < SCALE)
+					fraction = fraction * 10 + (chars[i] - '0');
+				else if (chars[i] != '0')
+					throw invalid(chars, start, end);
+			}
+			digits += fractionDigits;
+			for (; fractionDigits < SCALE; fractionDigits++)
+				fraction *= 10;
+		}
+		if (i < end && (chars[i] == 'e' || chars[i] == 'E') && digits > 0)
+			return parseExponent(chars, start, end);
+		if (i != end || digits == 0)
+			throw invalid(chars, start, end);
+		long value = units * 100 + fraction;
+		return ofCents(negative ? -value : value);
+	}
+
+	/**
+	 * Parses like {@link #parse(char[], int, int)}, except that a number with
+	 * more fraction or integer digits than a price holds is kept as it is so that
+	 * {@link PriceDigits} rejects it like the other invalid prices
+	 * 
+	 * @param chars  - character buffer
+	 * @param offset - index of the first character
+	 * @param length - number of characters
+	 * @return {@link Price}
+	 * @throws NumberFormatException if the text is not a number
+	 */
+	public static Price parseLenient(char[] chars, int offset, int length) {
+		try {
+			return parse(chars, offset, length);
+		} catch (NumberFormatException e) {
+			try {
+				return new Price(0, new BigDecimal(new String(chars, offset, length).trim()).stripTrailingZeros());
+			} catch (NumberFormatException notNumber) {
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Parses like {@link #parse(CharSequence)}, except that a number with more
+	 * fraction or integer digits than a price holds is kept as it is
+	 * 
+	 * @param text - price text
+	 * @return {@link Price}
+	 * @throws NumberFormatException if the text is not a number
+	 */
+	public static Price parseLenient(CharSequence text) {
+		String value = text.toString();
+		return parseLenient(value.toCharArray(), 0, value.length());
+	}
+
+	/**
+	 * 
+	 * @return price in cents
+	 * @throws IllegalStateException if the price has more digits than a price
+	 *                               holds
+	 */
+	public long getCents() {
+		if (outOfRange != null)
+			throw new IllegalStateException("Illegal format for price : " + outOfRange.toPlainString());
+		return cents;
+	}
+
+	/**
+	 * 
+	 * @return true if the price is greater than zero
+	 */
+	public boolean isPositive() {
+		return outOfRange == null ? cents > 0 : outOfRange.signum() > 0;
+	}
+
+	/**
+	 * 
+	 * @return number of integer digits, zero for prices below one
+	 */
+	public int getIntegerDigits() {
+		if (outOfRange != null)
+			return Math.max(0, outOfRange.precision() - outOfRange.scale());
+		long units = Math.abs(cents / 100);
+		int digits = 0;
+		for (; units > 0; units /= 10)
+			digits++;
+		return digits;
+	}
+
+	/**
+	 * 
+	 * @return number of fraction digits without the trailing zeros
+	 */
+	public int getFractionDigits() {
+		if (outOfRange != null)
+			return Math.max(0, outOfRange.scale());
+		return cents % 100 == 0 ? 0 : cents % 10 == 0 ? 1 : SCALE;
+	}
+
+	/**
+	 * 
+	 * @return {@link BigDecimal} with two fraction digits
+	 */
+	public BigDecimal toBigDecimal() {
+		return outOfRange == null ? BigDecimal.valueOf(cents, SCALE) : outOfRange;
+	}
+
+	@Override
+	public int compareTo(Price other) {
+		if (outOfRange != null || other.outOfRange != null)
+			return toBigDecimal().compareTo(other.toBigDecimal());
+		return Long.compare(cents, other.cents);
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (!(object instanceof Price))
+			return false;
+		Price other = (Price) object;
+		return other.cents == cents && Objects.equals(other.outOfRange, outOfRange);
+	}
+
+	@Override
+	public int hashCode() {
+		return outOfRange == null ? Long.hashCode(cents) : outOfRange.hashCode();
+	}
+
+	/**
+	 * 
+	 * @return plain decimal text with two fraction digits such as {@code 325.00}
+	 */
+	@Override
+	public String toString() {
+		if (outOfRange != null)
+			return outOfRange.toPlainString();
+		long units = cents / 100;
+		int fraction = (int) Math.abs(cents % 100);
+		StringBuilder builder = new StringBuilder(24);
+		if (cents < 0 && units == 0)
+			builder.append('-');
+		return builder.append(units)
+				.append('.')
+				.append((char) ('0' + fraction / 10))
+				.append((char) ('0' + fraction % 10))
+				.toString();
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static Price parseExponent(char[] chars, int start, int end) {
+		try {
+			return of(new BigDecimal(chars, start, end - start));
+		} catch (ArithmeticException e) {
+			throw invalid(chars, start, end);
+		}
+	}
+
+	private static NumberFormatException invalid(char[] chars, int start, int end) {
+		return new NumberFormatException("Illegal format for price : " + new String(chars, start, end - start));
+	}
+}
@@ -0,0 +1,39 @@
+package com.stockapi.model;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+/**
+ * Reads {@link Price} from a JSON number or string straight from the
+ * characters of the parser, no {@link java.math.BigDecimal} is created. A
+ * number with a non-zero digit beyond two fraction digits is kept as it is and
+ * rejected by the validation of {@link PriceDigits}, only text which is not a
+ * number fails the binding.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class PriceDeserializer extends StdScalarDeserializer<Price> {
+
+	private static final long serialVersionUID = 1L;
+
+	public PriceDeserializer() {
+		super(Price.class);
+	}
+
+	@Override
+	public Price deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING)
+			return (Price) context.handleUnexpectedToken(Price.class, parser);
+		try {
+			return Price.parseLenient(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+		} catch (NumberFormatException e) {
+			return (Price) context.handleWeirdStringValue(Price.class, parser.getText(), "Illegal format for price!");
+		}
+	}
+}
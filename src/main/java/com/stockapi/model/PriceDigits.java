@@ -0,0 +1,67 @@
+package com.stockapi.model;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.Payload;
+
+/**
+ * The annotated {@link Price} must have at most the given number of integer
+ * and fraction digits, null is valid
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Documented
+@Target({ FIELD, PARAMETER })
+@Retention(RUNTIME)
+@Constraint(validatedBy = PriceDigits.Validator.class)
+public @interface PriceDigits {
+
+	String message() default "Illegal format for price!";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+
+	/**
+	 * 
+	 * @return maximum number of integer digits
+	 */
+	int integer();
+
+	/**
+	 * 
+	 * @return maximum number of fraction digits
+	 */
+	int fraction() default Price.SCALE;
+
+	/**
+	 * Validator of {@link PriceDigits}
+	 */
+	class Validator implements ConstraintValidator<PriceDigits, Price> {
+
+		private int integer;
+
+		private int fraction;
+
+		@Override
+		public void initialize(PriceDigits constraint) {
+			this.integer = constraint.integer();
+			this.fraction = constraint.fraction();
+		}
+
+		@Override
+		public boolean isValid(Price price, ConstraintValidatorContext context) {
+			return price == null || (price.getIntegerDigits() <= integer && price.getFractionDigits() <= fraction);
+		}
+	}
+}
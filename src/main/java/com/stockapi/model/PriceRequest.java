@@ -1,9 +1,7 @@
 package com.stockapi.model;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
-import javax.validation.constraints.DecimalMin;
-import javax.validation.constraints.Digits;
 import javax.validation.constraints.NotNull;
 
 import lombok.AllArgsConstructor;
@@ -26,7 +24,9 @@ public class PriceRequest {
 	private Long id;
 	
 	@NotNull(message = "Price can not be null!")
-	@DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than zero!")
-    @Digits(integer = 10, fraction = 2, message = "Illegal format for price!")
-	private BigDecimal currentPrice;
+	@PositivePrice(message = "Price must be greater than zero!")
+	@PriceDigits(integer = 10, message = "Illegal format for price!")
+	private Price currentPrice;
+	
+	private LocalDateTime timestamp;
 }
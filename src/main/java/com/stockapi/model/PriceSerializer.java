@@ -0,0 +1,33 @@
+package com.stockapi.model;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes {@link Price} as a plain JSON number with two fraction digits such as
+ * {@code 325.00}, the same text a {@link java.math.BigDecimal} of scale two is
+ * written with. Binary formats get a double which reads back to the same
+ * price, prices are validated to at most ten integer digits.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class PriceSerializer extends StdSerializer<Price> {
+
+	private static final long serialVersionUID = 1L;
+
+	public PriceSerializer() {
+		super(Price.class);
+	}
+
+	@Override
+	public void serialize(Price price, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		if (generator.canWriteBinaryNatively())
+			generator.writeNumber(price.getCents() / 100.0);
+		else
+			generator.writeNumber(price.toString());
+	}
+}
@@ -1,9 +1,5 @@
 package com.stockapi.model;
 
-import java.math.BigDecimal;
-
-import javax.validation.constraints.DecimalMin;
-import javax.validation.constraints.Digits;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
@@ -29,7 +25,7 @@ public class StockRequest {
 	private String name;
 	
 	@NotNull(message = "Price can not be null!")
-	@DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than zero!")
-    @Digits(integer = 10, fraction = 2, message = "Illegal format for price!")
-	private BigDecimal currentPrice;
+	@PositivePrice(message = "Price must be greater than zero!")
+	@PriceDigits(integer = 10, message = "Illegal format for price!")
+	private Price currentPrice;
 }
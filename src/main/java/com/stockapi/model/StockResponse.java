@@ -1,15 +1,18 @@
 package com.stockapi.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * Stock response object to be used as a response for all endpoints
+ * Stock response object to be used as a response for all endpoints, also the
+ * projection of the read queries which select into the all arguments
+ * constructor
  * 
  * @author gorkemdemiray
  *
@@ -22,6 +25,8 @@ public class StockResponse {
 
 	private Long id;
 	private String name;
-	private BigDecimal currentPrice;
+	private Price currentPrice;
 	private LocalDateTime lastUpdate;
+	@JsonIgnore
+	private Long version;
 }
\ No newline at end of file
@@ -1,20 +1,93 @@
 package com.stockapi.repository;
 
-import java.util.Optional;
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.stockapi.domain.Stock;
+import com.stockapi.model.StockResponse;
 
 /**
  * {@link Stock} repository to handle CRUD operations
  * 
  * @author gorkemdemiray
- *
+ * 
  */
 @Repository
 public interface StockRepository extends JpaRepository<Stock, Long> {
 
-	public Optional<Stock> findByName(String name);
+	/**
+	 * Selects stocks straight into {@link StockResponse} objects so that reads do
+	 * not create managed entities
+	 */
+	String SELECT_RESPONSE = "select new com.stockapi.model.StockResponse(s.id, s.name, s.currentPrice, s.lastUpdate, s.version) from Stock s";
+
+	public List<Stock> findByNameIn(Collection<String> names);
+
+	/**
+	 * Keyset pagination query, returns the stocks whose id is greater than the
+	 * given cursor ordered by id. Cached in the query cache until the stock
+	 * table changes
+	 * 
+	 * @param id       - last id of the previous page
+	 * @param pageable - {@link Pageable} which only limits the result size
+	 * @return list of {@link StockResponse}
+	 */
+	@Transactional(readOnly = true)
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	@Query(SELECT_RESPONSE + " where s.id > :id order by s.id")
+	public List<StockResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+	/**
+	 * Offset pagination query, returns a page of stocks in the order of the given
+	 * {@link Pageable}. The page and its count are cached in the query cache
+	 * until the stock table changes
+	 * 
+	 * @param pageable - {@link Pageable} with page number, size and sort
+	 * @return {@link Page} of {@link StockResponse}
+	 */
+	@Transactional(readOnly = true)
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	@Query(value = SELECT_RESPONSE, countQuery = "select count(s) from Stock s")
+	public Page<StockResponse> findResponses(Pageable pageable);
+
+	/**
+	 * Offset pagination query, returns a page of stocks whose lower case name
+	 * matches the given like pattern in the order of the given {@link Pageable}.
+	 * The page and its count are cached in the query cache until the stock table
+	 * changes
+	 * 
+	 * @param pattern  - lower case like pattern, backslash escapes wildcards
+	 * @param pageable - {@link Pageable} with page number, size and sort
+	 * @return {@link Page} of {@link StockResponse}
+	 */
+	@Transactional(readOnly = true)
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	@Query(value = SELECT_RESPONSE + " where lower(s.name) like :pattern escape '\\'",
+			countQuery = "select count(s) from Stock s where lower(s.name) like :pattern escape '\\'")
+	public Page<StockResponse> findResponsesByNameLike(@Param("pattern") String pattern, Pageable pageable);
+
+	/**
+	 * Streams all the stocks ordered by id, must be consumed within a transaction
+	 * and closed afterwards
+	 * 
+	 * @return stream of {@link StockResponse}
+	 */
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query(SELECT_RESPONSE + " order by s.id")
+	public Stream<StockResponse> streamAllResponses();
 }
@@ -0,0 +1,192 @@
+package com.stockapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stockapi.event.StockChangedEvent;
+import com.stockapi.exception.StockBadRequestException;
+import com.stockapi.model.StockResponse;
+import com.stockapi.repository.StockRepository;
+import com.stockapi.store.QuoteStore;
+
+/**
+ * Case-insensitive in-memory index of stock names. Prefix lookups use a
+ * sorted map of the lower case names, substring lookups use a trigram index
+ * where only the ids sharing the rarest trigram of the query are checked.
+ * Names are loaded once the application is ready and added as stocks are
+ * created, reads never block.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class StockNameIndex {
+
+	private static final int GRAM = 3;
+	private static final int CHUNK_SIZE = 1000;
+
+	private final StockRepository stockRepository;
+	private final QuoteStore quoteStore;
+	private final ConcurrentMap<Long, String> names = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListMap<String, Long> sortedNames = new ConcurrentSkipListMap<>();
+	private final ConcurrentMap<Long, Postings> trigrams = new ConcurrentHashMap<>();
+
+	public StockNameIndex(StockRepository stockRepository, @Nullable QuoteStore quoteStore) {
+		this.stockRepository = stockRepository;
+		this.quoteStore = quoteStore;
+	}
+
+	/**
+	 * Loads all the stock names from the database, or from the quote store if it
+	 * owns the stocks, once the application is ready
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		if (quoteStore != null && quoteStore.ownsStocks()) {
+			quoteStore.forEach(stock -> add(stock.getId(), stock.getName()));
+			return;
+		}
+		long after = 0;
+		List<StockResponse> stocks;
+		do {
+			stocks = stockRepository.findResponsesByIdGreaterThan(after, PageRequest.of(0, CHUNK_SIZE));
+			for (StockResponse stock : stocks) {
+				add(stock.getId(), stock.getName());
+				after = stock.getId();
+			}
+		} while (stocks.size() == CHUNK_SIZE);
+	}
+
+	/**
+	 * Adds the name of a created stock after the transaction which created it
+	 * commits, price updates of known stocks are ignored
+	 * 
+	 * @param event - {@link StockChangedEvent}
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onStockChanged(StockChangedEvent event) {
+		StockResponse stock = event.getStock();
+		add(stock.getId(), stock.getName());
+	}
+
+	/**
+	 * Adds the given stock name to the index unless the stock is already indexed
+	 * 
+	 * @param id   - stock id
+	 * @param name - stock name
+	 */
+	public void add(Long id, String name) {
+		String key = normalize(name);
+		if (names.putIfAbsent(id, key) != null)
+			return;
+		sortedNames.put(key + '\0' + id, id);
+		Set<Long> grams = new HashSet<>();
+		for (int i = 0; i + GRAM <= key.length(); i++)
+			grams.add(gram(key, i));
+		for (Long gram : grams)
+			trigrams.computeIfAbsent(gram, k -> new Postings()).add(id);
+	}
+
+	/**
+	 * Finds the stocks whose name contains the given text ignoring case. Names
+	 * starting with the text come first in alphabetical order, followed by the
+	 * other names containing it in id order
+	 * 
+	 * @param query - text to search
+	 * @param limit - maximum number of results
+	 * @return ids of the matching stocks
+	 */
+	public List<Long> search(String query, int limit) {
+		String text = normalize(query);
+		if (text.isEmpty())
+			throw new StockBadRequestException("Search text can not be empty!");
+		Set<Long> ids = new LinkedHashSet<>();
+		ConcurrentNavigableMap<String, Long> prefixed = sortedNames.subMap(text, true, text + Character.MAX_VALUE, false);
+		for (Long id : prefixed.values()) {
+			if (ids.size() == limit)
+				return new ArrayList<>(ids);
+			ids.add(id);
+		}
+		if (text.length() < GRAM) {
+			for (Map.Entry<Long, String> entry : names.entrySet()) {
+				if (ids.size() == limit)
+					break;
+				if (entry.getValue().contains(text))
+					ids.add(entry.getKey());
+			}
+			return new ArrayList<>(ids);
+		}
+		Postings candidates = null;
+		for (int i = 0; i + GRAM <= text.length(); i++) {
+			Postings postings = trigrams.get(gram(text, i));
+			if (postings == null)
+				return new ArrayList<>(ids);
+			if (candidates == null || postings.size() < candidates.size())
+				candidates = postings;
+		}
+		int size = candidates.size();
+		long[] candidateIds = candidates.ids;
+		for (int i = 0; i < size && ids.size() < limit; i++) {
+			String name = names.get(candidateIds[i]);
+			if (name != null && name.contains(text))
+				ids.add(candidateIds[i]);
+		}
+		return new ArrayList<>(ids);
+	}
+
+	/**
+	 * 
+	 * @return number of indexed names
+	 */
+	public int size() {
+		return names.size();
+	}
+
+	private static String normalize(String text) {
+		return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static Long gram(String text, int index) {
+		return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+	}
+
+	/**
+	 * Append-only id list of a trigram. Appends are serialized, a reader takes the
+	 * size before the array and only looks at the ids below it which are never
+	 * modified again
+	 */
+	private static final class Postings {
+
+		private volatile long[] ids = new long[4];
+		private volatile int size;
+
+		private synchronized void add(long id) {
+			long[] current = ids;
+			if (size == current.length)
+				ids = current = Arrays.copyOf(current, current.length * 2);
+			current[size] = id;
+			size = size + 1;
+		}
+
+		private int size() {
+			return size;
+		}
+	}
+}
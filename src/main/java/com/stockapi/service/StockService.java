@@ -1,19 +1,60 @@
 package com.stockapi.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.stockapi.cache.StockCache;
+import com.stockapi.config.StockProperties;
 import com.stockapi.domain.Stock;
+import com.stockapi.event.StockChangedEvent;
 import com.stockapi.exception.StockAlreadyExistsException;
+import com.stockapi.exception.StockConflictException;
 import com.stockapi.exception.StockNotFoundException;
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.history.PriceHistory;
+import com.stockapi.model.BatchItemResponse;
+import com.stockapi.model.OhlcBar;
+import com.stockapi.model.Price;
 import com.stockapi.model.PriceRequest;
 import com.stockapi.model.StockRequest;
 import com.stockapi.model.StockResponse;
 import com.stockapi.repository.StockRepository;
+import com.stockapi.search.StockNameIndex;
+import com.stockapi.store.QuoteStore;
+import com.stockapi.store.StockWriteBehind;
 
 /**
  * Service to perform business logic
@@ -24,32 +65,186 @@ import com.stockapi.repository.StockRepository;
 @Service
 public class StockService {
 	
+	private static final int MAX_UPDATE_ATTEMPTS = 3;
+	
+	private static final Set<String> SORT_PROPERTIES = Set.of("name", "currentPrice", "lastUpdate");
+	
+	private static final int PARALLEL_VALIDATION_THRESHOLD = 1000;
+	
 	@Autowired
 	private StockRepository stockRepository;
 	
+	@Autowired
+	private StockProperties stockProperties;
+	
+	@Autowired
+	private StockCache stockCache;
+	
+	@Autowired
+	private PriceHistory priceHistory;
+	
+	@Autowired
+	private StockNameIndex stockNameIndex;
+	
+	@Autowired
+	private Validator validator;
+	
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Autowired(required = false)
+	private QuoteStore quoteStore;
+	
+	@Autowired(required = false)
+	private StockWriteBehind writeBehind;
+	
 	/**
-	 * Gets list of all {@link Stock} entities and converts each of them to the
-	 * {@link StockResponse} object
+	 * Gets a page of stocks whose id is greater than the given cursor selected
+	 * straight into {@link StockResponse} objects
 	 * 
+	 * @param after - id of the last stock of the previous page
+	 * @param limit - page size, falls back to the default and is capped by the
+	 *              configured maximum
 	 * @return list of {@link StockResponse}
 	 */
-	public List<StockResponse> getStocks() {
-		return stockRepository.findAll()
+	public List<StockResponse> getStocks(Long after, Integer limit) {
+		if (quoteStore != null)
+			return quoteStore.getAfter(after == null ? 0L : after, resolveLimit(limit));
+		return stockRepository.findResponsesByIdGreaterThan(after == null ? 0L : after, PageRequest.of(0, resolveLimit(limit)))
 				.stream()
-				.map(this::getStockResponse)
+				.map(this::withPendingUpdate)
 				.collect(Collectors.toList());
 	}
 	
 	/**
-	 * Gets {@link Stock} object with the given id and converts to the
-	 * {@link StockResponse} if exists, otherwise throws exception
+	 * Gets a page of stocks optionally filtered by name. Only name, current price
+	 * and last update are accepted as sort properties, the page is sorted by name
+	 * otherwise and always by id last so that pages are stable. The page size is
+	 * capped by the configured maximum. With a quote store the page is selected
+	 * and sorted from the store, with write-behind only name is accepted since
+	 * the prices in the database may be behind
+	 * 
+	 * @param name     - text the names should contain ignoring case, all stocks if
+	 *                 empty
+	 * @param pageable - {@link Pageable} with page number, size and sort
+	 * @return {@link Page} of {@link StockResponse}
+	 */
+	public Page<StockResponse> getStocks(String name, Pageable pageable) {
+		if (quoteStore != null)
+			return getQuotes(name, resolvePageable(pageable, SORT_PROPERTIES));
+		Pageable page = resolvePageable(pageable, writeBehind == null ? SORT_PROPERTIES : Set.of("name"));
+		Page<StockResponse> stocks = name == null || name.trim().isEmpty()
+				? stockRepository.findResponses(page)
+				: stockRepository.findResponsesByNameLike(getLikePattern(name), page);
+		return stocks.map(this::withPendingUpdate);
+	}
+	
+	/**
+	 * Selects a page of stocks from the {@link QuoteStore} in a single pass,
+	 * keeping only the stocks up to the end of the page in a bounded heap
+	 * 
+	 * @param name - text the names should contain ignoring case, all stocks if
+	 *             empty
+	 * @param page - resolved {@link Pageable}
+	 * @return {@link Page} of {@link StockResponse}
+	 */
+	private Page<StockResponse> getQuotes(String name, Pageable page) {
+		String text = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+		Comparator<StockResponse> comparator = getComparator(page.getSort());
+		int end = (int) Math.min(page.getOffset() + page.getPageSize(), Integer.MAX_VALUE);
+		PriorityQueue<StockResponse> top = new PriorityQueue<>(comparator.reversed());
+		long[] total = new long[1];
+		quoteStore.forEach(stockResponse -> {
+			if (!text.isEmpty() && !stockResponse.getName().toLowerCase(Locale.ROOT).contains(text))
+				return;
+			total[0]++;
+			if (top.size() < end)
+				top.add(stockResponse);
+			else if (comparator.compare(stockResponse, top.peek()) < 0) {
+				top.poll();
+				top.add(stockResponse);
+			}
+		});
+		List<StockResponse> stocks = new ArrayList<>(top);
+		stocks.sort(comparator);
+		List<StockResponse> content = page.getOffset() >= stocks.size()
+				? Collections.emptyList()
+				: stocks.subList((int) page.getOffset(), stocks.size());
+		return new PageImpl<>(content, page, total[0]);
+	}
+	
+	/**
+	 * Streams all stocks ordered by id to the given consumer as
+	 * {@link StockResponse} objects. Rows are selected straight into the response
+	 * objects, nothing is kept in the persistence context so the memory stays
+	 * flat regardless of the table size
+	 * 
+	 * @param consumer - {@link Consumer} of {@link StockResponse}
+	 */
+	@Transactional(readOnly = true)
+	public void streamStocks(Consumer<StockResponse> consumer) {
+		if (quoteStore != null) {
+			quoteStore.forEach(consumer);
+			return;
+		}
+		try (Stream<StockResponse> stocks = stockRepository.streamAllResponses()) {
+			stocks.forEach(stockResponse -> consumer.accept(withPendingUpdate(stockResponse)));
+		}
+	}
+	
+	/**
+	 * Gets {@link StockResponse} with the given id from the cache, on a miss loads
+	 * the {@link Stock} object and converts it if exists, otherwise throws
+	 * exception. A quote store which owns the stocks is never backed by the
+	 * database
 	 * 
 	 * @param id - stock id
 	 * @return {@link StockResponse}
 	 */
 	public StockResponse getStock(Long id) {
-		Stock stock = find(id);
-		return getStockResponse(stock);
+		if (quoteStore != null) {
+			StockResponse stockResponse = quoteStore.get(id);
+			if (stockResponse != null)
+				return stockResponse;
+			if (quoteStore.ownsStocks())
+				throw new StockNotFoundException("Stock not found with the id : " + id);
+			quoteStore.put(getStockResponse(find(id)));
+			return quoteStore.get(id);
+		}
+		return withPendingUpdate(stockCache.get(id, key -> getStockResponse(find(key))));
+	}
+	
+	/**
+	 * Searches the stocks whose name starts with or contains the given text
+	 * ignoring case, names starting with the text come first
+	 * 
+	 * @param query - text to search
+	 * @param limit - maximum number of results, falls back to the default and is
+	 *              capped by the configured maximum
+	 * @return list of matching {@link StockResponse}
+	 */
+	public List<StockResponse> searchStocks(String query, Integer limit) {
+		return stockNameIndex.search(query, resolveLimit(limit))
+				.stream()
+				.map(this::getStock)
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Gets the price history of the stock with the given id as OHLC bars if the
+	 * stock exists, otherwise throws exception
+	 * 
+	 * @param id       - stock id
+	 * @param from     - inclusive start time, one day before the end if null
+	 * @param to       - exclusive end time, now if null
+	 * @param interval - bar length
+	 * @return list of {@link OhlcBar} ordered by time
+	 */
+	public List<OhlcBar> getHistory(Long id, LocalDateTime from, LocalDateTime to, Duration interval) {
+		getStock(id);
+		LocalDateTime end = to == null ? LocalDateTime.now() : to;
+		LocalDateTime start = from == null ? end.minusDays(1) : from;
+		return priceHistory.getBars(id, start, end, interval);
 	}
 	
 	/**
@@ -66,20 +261,36 @@ public class StockService {
 	/**
 	 * Creates new stock with the given name and current price and converts it to
 	 * {@link StockResponse} object if all fields are valid and no stock exists with
-	 * the name, otherwise throws exception
+	 * the name, otherwise throws exception. Duplicate names are detected by the
+	 * unique constraint on the name column so that creation is a single indexed
+	 * write which is also correct under concurrent requests. A quote store which
+	 * owns the stocks creates them itself
 	 * 
 	 * @param stockRequest - {@link StockRequest} which has name and current price
 	 * @return {@link StockResponse}
 	 */
 	public StockResponse createStock(StockRequest stockRequest) {
-		if (stockRepository.findByName(stockRequest.getName()).isPresent())
+		if (quoteStore != null && quoteStore.ownsStocks()) {
+			StockResponse stockResponse = quoteStore.create(stockRequest.getName(), stockRequest.getCurrentPrice(),
+					LocalDateTime.now());
+			eventPublisher.publishEvent(new StockChangedEvent(stockResponse));
+			return stockResponse;
+		}
+		if (stockCache.getIfPresent(stockRequest.getName()) != null)
 			throw new StockAlreadyExistsException("Stock already exists with the name : " + stockRequest.getName());
 		Stock stock = Stock.builder()
 				.name(stockRequest.getName())
 				.currentPrice(stockRequest.getCurrentPrice())
 				.lastUpdate(LocalDateTime.now()).build();
-		Stock savedStock = stockRepository.save(stock);
-		return getStockResponse(savedStock);
+		Stock savedStock;
+		try {
+			savedStock = stockRepository.saveAndFlush(stock);
+		} catch (DataIntegrityViolationException e) {
+			throw new StockAlreadyExistsException("Stock already exists with the name : " + stockRequest.getName());
+		}
+		StockResponse stockResponse = getStockResponse(savedStock);
+		onStockChanged(stockResponse);
+		return stockResponse;
 	}
 	
 	/**
@@ -91,10 +302,507 @@ public class StockService {
 	 * @return {@link StockResponse}
 	 */
 	public StockResponse updateStock(Long stockId, PriceRequest priceRequest) {
+		return updateStock(stockId, priceRequest, null);
+	}
+	
+	/**
+	 * Updates the stock with the given current price and converts it to
+	 * {@link StockResponse} object if fiels is valid, otherwise throws exception.
+	 * If the request has a timestamp the update is applied only if the stored
+	 * price is not newer. Concurrent updates are detected by the version of the
+	 * stock, an update without an expected version is retried on the latest
+	 * state. The quote store checks the version of its own record atomically with
+	 * the update. With write-behind enabled an update without an expected version
+	 * is buffered and written to the database later, unless the buffer is full.
+	 * A buffered update has no version until it is written, so it is served
+	 * without an ETag, and an update with an expected version fails while the
+	 * stock has a buffered update
+	 * 
+	 * @param stockId         - stock id
+	 * @param priceRequest    - {@link PriceRequest} which has current price and
+	 *                        optional timestamp
+	 * @param expectedVersion - version the client has read, null for any version
+	 * @return {@link StockResponse}
+	 */
+	public StockResponse updateStock(Long stockId, PriceRequest priceRequest, Long expectedVersion) {
+		LocalDateTime time = priceRequest.getTimestamp() == null ? LocalDateTime.now() : priceRequest.getTimestamp();
+		if (quoteStore != null) {
+			getStock(stockId);
+			StockResponse stockResponse = quoteStore.update(stockId, priceRequest.getCurrentPrice(), time, expectedVersion);
+			checkNotOlder(stockId, stockResponse.getLastUpdate(), priceRequest.getTimestamp());
+			eventPublisher.publishEvent(new StockChangedEvent(stockResponse));
+			return stockResponse;
+		}
+		if (writeBehind != null && expectedVersion != null && writeBehind.getPending(stockId) != null)
+			throw new StockPreconditionFailedException("Stock has a pending update without a version : " + stockId);
+		if (writeBehind != null && expectedVersion == null) {
+			StockResponse stock = getStock(stockId);
+			checkNotOlder(stockId, stock.getLastUpdate(), priceRequest.getTimestamp());
+			StockResponse stockResponse = StockResponse.builder()
+					.id(stockId)
+					.name(stock.getName())
+					.currentPrice(priceRequest.getCurrentPrice())
+					.lastUpdate(time)
+					.build();
+			if (writeBehind.offer(stockResponse)) {
+				eventPublisher.publishEvent(new StockChangedEvent(stockResponse));
+				return stockResponse;
+			}
+		}
+		for (int attempt = 1;; attempt++) {
+			try {
+				return saveStock(stockId, priceRequest.getCurrentPrice(), time, priceRequest.getTimestamp() != null,
+						expectedVersion);
+			} catch (OptimisticLockingFailureException e) {
+				if (expectedVersion != null)
+					throw new StockPreconditionFailedException("Stock has been changed by another update : " + stockId);
+				if (attempt == MAX_UPDATE_ATTEMPTS)
+					throw e;
+			}
+		}
+	}
+	
+	/**
+	 * Loads the stock, applies the price and saves it with a version check
+	 * 
+	 * @param stockId         - stock id
+	 * @param price           - new price
+	 * @param time            - time of the new price
+	 * @param conditional     - whether a newer stored price rejects the update
+	 * @param expectedVersion - version the client has read, null for any version
+	 * @return {@link StockResponse}
+	 */
+	private StockResponse saveStock(Long stockId, Price price, LocalDateTime time, boolean conditional,
+			Long expectedVersion) {
 		Stock stock = find(stockId);
-		stock.setCurrentPrice(priceRequest.getCurrentPrice());
+		checkVersion(stockId, stock.getVersion(), expectedVersion);
+		if (conditional)
+			checkNotOlder(stockId, stock.getLastUpdate(), time);
+		stock.setCurrentPrice(price);
+		stock.setLastUpdate(time);
 		Stock savedStock = stockRepository.save(stock);
-		return getStockResponse(savedStock);
+		StockResponse stockResponse = getStockResponse(savedStock);
+		onStockChanged(stockResponse);
+		return stockResponse;
+	}
+	
+	/**
+	 * Throws exception if the version of the stock is not the expected one
+	 * 
+	 * @param stockId         - stock id
+	 * @param version         - current version of the stock
+	 * @param expectedVersion - version the client has read, null for any version
+	 */
+	private void checkVersion(Long stockId, Long version, Long expectedVersion) {
+		if (expectedVersion != null && !expectedVersion.equals(version))
+			throw new StockPreconditionFailedException("Stock version does not match for the id : " + stockId);
+	}
+	
+	/**
+	 * Throws exception if the stored price is newer than the given time
+	 * 
+	 * @param stockId    - stock id
+	 * @param lastUpdate - time of the stored price
+	 * @param time       - time of the new price, null for unconditional updates
+	 */
+	private void checkNotOlder(Long stockId, LocalDateTime lastUpdate, LocalDateTime time) {
+		if (time != null && lastUpdate != null && lastUpdate.isAfter(time))
+			throw new StockConflictException("Stock has a newer price than the given timestamp for the id : " + stockId);
+	}
+	
+	/**
+	 * Creates new stocks in a single transaction with batched inserts. Each item is
+	 * validated on its own, invalid items and the names which already exist are
+	 * reported and skipped while the rest are created
+	 * 
+	 * @param stockRequests - list of {@link StockRequest} which have name and
+	 *                      current price
+	 * @return list of {@link BatchItemResponse} in request order
+	 */
+	@Transactional
+	public List<BatchItemResponse> createStocks(List<StockRequest> stockRequests) {
+		List<List<String>> errorMessages = validateAll(stockRequests);
+		if (quoteStore != null && quoteStore.ownsStocks())
+			return createQuotes(stockRequests, errorMessages);
+		BatchItemResponse[] results = new BatchItemResponse[stockRequests.size()];
+		Map<String, Integer> indexesByName = new LinkedHashMap<>();
+		for (int i = 0; i < stockRequests.size(); i++) {
+			StockRequest stockRequest = stockRequests.get(i);
+			List<String> errorMessage = errorMessages.get(i);
+			if (!errorMessage.isEmpty())
+				results[i] = getBatchItemResponse(i, HttpStatus.BAD_REQUEST, errorMessage);
+			else if (indexesByName.putIfAbsent(stockRequest.getName(), i) != null)
+				results[i] = getBatchItemResponse(i, HttpStatus.BAD_REQUEST,
+						"Stock already exists with the name : " + stockRequest.getName());
+		}
+		if (!indexesByName.isEmpty()) {
+			stockRepository.findByNameIn(indexesByName.keySet()).forEach(stock -> {
+				int index = indexesByName.remove(stock.getName());
+				results[index] = getBatchItemResponse(index, HttpStatus.BAD_REQUEST,
+						"Stock already exists with the name : " + stock.getName());
+			});
+		}
+		
+		LocalDateTime now = LocalDateTime.now();
+		List<Integer> indexes = new ArrayList<>(indexesByName.values());
+		List<Stock> stocks = indexes.stream()
+				.map(index -> Stock.builder()
+						.name(stockRequests.get(index).getName())
+						.currentPrice(stockRequests.get(index).getCurrentPrice())
+						.lastUpdate(now).build())
+				.collect(Collectors.toList());
+		List<Stock> savedStocks = stockRepository.saveAll(stocks);
+		try {
+			stockRepository.flush();
+		} catch (DataIntegrityViolationException e) {
+			throw new StockAlreadyExistsException("Stock already exists with one of the names : " + indexesByName.keySet());
+		}
+		
+		for (int i = 0; i < savedStocks.size(); i++) {
+			StockResponse stockResponse = getStockResponse(savedStocks.get(i));
+			onStockChanged(stockResponse);
+			results[indexes.get(i)] = getBatchItemResponse(indexes.get(i), HttpStatus.CREATED, stockResponse);
+		}
+		return Arrays.asList(results);
+	}
+	
+	/**
+	 * Creates new stocks in the {@link QuoteStore} which owns the stocks, invalid
+	 * items and the names which already exist are reported and skipped
+	 * 
+	 * @param stockRequests - list of {@link StockRequest} which have name and
+	 *                      current price
+	 * @param errorMessages - validation error messages of each request
+	 * @return list of {@link BatchItemResponse} in request order
+	 */
+	private List<BatchItemResponse> createQuotes(List<StockRequest> stockRequests, List<List<String>> errorMessages) {
+		List<BatchItemResponse> results = new ArrayList<>(stockRequests.size());
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < stockRequests.size(); i++) {
+			StockRequest stockRequest = stockRequests.get(i);
+			if (!errorMessages.get(i).isEmpty()) {
+				results.add(getBatchItemResponse(i, HttpStatus.BAD_REQUEST, errorMessages.get(i)));
+				continue;
+			}
+			try {
+				StockResponse stockResponse = quoteStore.create(stockRequest.getName(), stockRequest.getCurrentPrice(), now);
+				eventPublisher.publishEvent(new StockChangedEvent(stockResponse));
+				results.add(getBatchItemResponse(i, HttpStatus.CREATED, stockResponse));
+			} catch (StockAlreadyExistsException e) {
+				results.add(getBatchItemResponse(i, HttpStatus.BAD_REQUEST, e.getMessage()));
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * Updates the prices of the given stocks in a single transaction with one
+	 * lookup query and batched updates. Each item is validated on its own, invalid
+	 * items, unknown ids and items whose timestamp is older than the stored price
+	 * are reported and skipped while the rest are updated. If the same id occurs
+	 * more than once the last price wins
+	 * 
+	 * @param priceRequests - list of {@link PriceRequest} which have id and current
+	 *                      price
+	 * @return list of {@link BatchItemResponse} in request order
+	 */
+	@Transactional
+	public List<BatchItemResponse> updateStocks(List<PriceRequest> priceRequests) {
+		if (quoteStore != null)
+			return updateQuotes(priceRequests);
+		BatchItemResponse[] results = new BatchItemResponse[priceRequests.size()];
+		Set<Long> ids = new HashSet<>();
+		for (int i = 0; i < priceRequests.size(); i++) {
+			PriceRequest priceRequest = priceRequests.get(i);
+			List<String> errorMessage = validate(priceRequest);
+			if (priceRequest != null && priceRequest.getId() == null)
+				errorMessage.add("Id can not be null!");
+			if (!errorMessage.isEmpty())
+				results[i] = getBatchItemResponse(i, HttpStatus.BAD_REQUEST, errorMessage);
+			else
+				ids.add(priceRequest.getId());
+		}
+		Map<Long, Stock> stocks = stockRepository.findAllById(ids)
+				.stream()
+				.collect(Collectors.toMap(Stock::getId, Function.identity()));
+		
+		LocalDateTime now = LocalDateTime.now();
+		Map<Long, Stock> changedStocks = new LinkedHashMap<>();
+		for (int i = 0; i < priceRequests.size(); i++) {
+			if (results[i] != null)
+				continue;
+			PriceRequest priceRequest = priceRequests.get(i);
+			Stock stock = stocks.get(priceRequest.getId());
+			if (stock == null) {
+				results[i] = getBatchItemResponse(i, HttpStatus.NOT_FOUND,
+						"Stock not found with the id : " + priceRequest.getId());
+				continue;
+			}
+			LocalDateTime timestamp = priceRequest.getTimestamp();
+			if (timestamp != null && stock.getLastUpdate() != null && stock.getLastUpdate().isAfter(timestamp)) {
+				results[i] = getBatchItemResponse(i, HttpStatus.CONFLICT,
+						"Stock has a newer price than the given timestamp for the id : " + priceRequest.getId());
+				continue;
+			}
+			stock.setCurrentPrice(priceRequest.getCurrentPrice());
+			stock.setLastUpdate(timestamp == null ? now : timestamp);
+			changedStocks.put(stock.getId(), stock);
+		}
+		stockRepository.saveAll(changedStocks.values());
+		stockRepository.flush();
+		
+		Map<Long, StockResponse> stockResponses = new LinkedHashMap<>();
+		changedStocks.values().forEach(stock -> {
+			StockResponse stockResponse = getStockResponse(stock);
+			onStockChanged(stockResponse);
+			stockResponses.put(stock.getId(), stockResponse);
+		});
+		for (int i = 0; i < priceRequests.size(); i++) {
+			if (results[i] == null)
+				results[i] = getBatchItemResponse(i, HttpStatus.OK, stockResponses.get(priceRequests.get(i).getId()));
+		}
+		return Arrays.asList(results);
+	}
+	
+	/**
+	 * Updates the prices of the given stocks in the {@link QuoteStore}, the
+	 * changes reach the database with the next snapshot
+	 * 
+	 * @param priceRequests - list of {@link PriceRequest} which have id and current
+	 *                      price
+	 * @return list of {@link BatchItemResponse} in request order
+	 */
+	private List<BatchItemResponse> updateQuotes(List<PriceRequest> priceRequests) {
+		List<BatchItemResponse> results = new ArrayList<>(priceRequests.size());
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < priceRequests.size(); i++) {
+			PriceRequest priceRequest = priceRequests.get(i);
+			List<String> errorMessage = validate(priceRequest);
+			if (priceRequest != null && priceRequest.getId() == null)
+				errorMessage.add("Id can not be null!");
+			if (!errorMessage.isEmpty()) {
+				results.add(getBatchItemResponse(i, HttpStatus.BAD_REQUEST, errorMessage));
+				continue;
+			}
+			try {
+				getStock(priceRequest.getId());
+			} catch (StockNotFoundException e) {
+				results.add(getBatchItemResponse(i, HttpStatus.NOT_FOUND, e.getMessage()));
+				continue;
+			}
+			LocalDateTime time = priceRequest.getTimestamp() == null ? now : priceRequest.getTimestamp();
+			StockResponse stockResponse = quoteStore.update(priceRequest.getId(), priceRequest.getCurrentPrice(), time);
+			if (priceRequest.getTimestamp() != null && stockResponse.getLastUpdate().isAfter(time)) {
+				results.add(getBatchItemResponse(i, HttpStatus.CONFLICT,
+						"Stock has a newer price than the given timestamp for the id : " + priceRequest.getId()));
+				continue;
+			}
+			eventPublisher.publishEvent(new StockChangedEvent(stockResponse));
+			results.add(getBatchItemResponse(i, HttpStatus.OK, stockResponse));
+		}
+		return results;
+	}
+	
+	/**
+	 * Replaces the given stock with its pending write-behind update if any and
+	 * not older, so reads see the price updates which are not written to the
+	 * database yet
+	 * 
+	 * @param stockResponse - {@link StockResponse} read from the cache or the
+	 *                      database
+	 * @return {@link StockResponse}
+	 */
+	private StockResponse withPendingUpdate(StockResponse stockResponse) {
+		if (writeBehind == null || stockResponse == null)
+			return stockResponse;
+		StockResponse pending = writeBehind.getPending(stockResponse.getId());
+		return pending == null || pending.getLastUpdate().isBefore(stockResponse.getLastUpdate()) ? stockResponse : pending;
+	}
+	
+	/**
+	 * Writes the changed stock through to the cache once the change is
+	 * committed and publishes {@link StockChangedEvent} for the listeners, so a
+	 * rolled back batch never leaves its stocks in the cache. An older pending
+	 * write-behind update of the stock is dropped so that it neither hides nor
+	 * overwrites the committed price
+	 * 
+	 * @param stockResponse - {@link StockResponse} of the created or updated stock
+	 */
+	private void onStockChanged(StockResponse stockResponse) {
+		afterCommit(() -> {
+			stockCache.put(stockResponse);
+			if (quoteStore != null)
+				quoteStore.put(stockResponse);
+			if (writeBehind != null)
+				writeBehind.discard(stockResponse);
+		});
+		eventPublisher.publishEvent(new StockChangedEvent(stockResponse));
+	}
+	
+	/**
+	 * Runs the given action after the current transaction commits, right away if
+	 * there is no transaction
+	 * 
+	 * @param action - action to run
+	 */
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+	
+	/**
+	 * Validates the given request object against its constraints
+	 * 
+	 * @param request - {@link StockRequest} or {@link PriceRequest}
+	 * @return list of error messages, empty if the request is valid
+	 */
+	private List<String> validate(Object request) {
+		if (request == null)
+			return new ArrayList<>(Arrays.asList("Request can not be null!"));
+		return validator.validate(request)
+				.stream()
+				.map(ConstraintViolation::getMessage)
+				.collect(Collectors.toCollection(ArrayList::new));
+	}
+	
+	/**
+	 * Validates the given requests, in parallel if there are at least
+	 * {@code PARALLEL_VALIDATION_THRESHOLD} of them
+	 * 
+	 * @param requests - requests to validate
+	 * @return list of error messages of each request in request order
+	 */
+	private List<List<String>> validateAll(List<?> requests) {
+		if (requests.size() < PARALLEL_VALIDATION_THRESHOLD)
+			return requests.stream().map(this::validate).collect(Collectors.toList());
+		return requests.parallelStream().map(this::validate).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Constructs successful {@link BatchItemResponse}
+	 * 
+	 * @param index         - index of the item within the batch
+	 * @param status        - {@link HttpStatus} of the item
+	 * @param stockResponse - {@link StockResponse} of the item
+	 * @return {@link BatchItemResponse}
+	 */
+	private BatchItemResponse getBatchItemResponse(int index, HttpStatus status, StockResponse stockResponse) {
+		return BatchItemResponse.builder()
+				.index(index)
+				.status(status)
+				.stock(stockResponse)
+				.build();
+	}
+	
+	/**
+	 * Constructs failed {@link BatchItemResponse}
+	 * 
+	 * @param index        - index of the item within the batch
+	 * @param status       - {@link HttpStatus} of the item
+	 * @param errorMessage - error messages of the item
+	 * @return {@link BatchItemResponse}
+	 */
+	private BatchItemResponse getBatchItemResponse(int index, HttpStatus status, List<String> errorMessage) {
+		return BatchItemResponse.builder()
+				.index(index)
+				.status(status)
+				.errorMessage(errorMessage)
+				.build();
+	}
+	
+	/**
+	 * Constructs failed {@link BatchItemResponse} with a single error message
+	 * 
+	 * @param index        - index of the item within the batch
+	 * @param status       - {@link HttpStatus} of the item
+	 * @param errorMessage - error message of the item
+	 * @return {@link BatchItemResponse}
+	 */
+	private BatchItemResponse getBatchItemResponse(int index, HttpStatus status, String errorMessage) {
+		return getBatchItemResponse(index, status, Arrays.asList(errorMessage));
+	}
+	
+	/**
+	 * Resolves page size for keyset pagination
+	 * 
+	 * @param limit - requested page size, may be null
+	 * @return page size between 1 and the configured maximum
+	 */
+	private int resolveLimit(Integer limit) {
+		StockProperties.Pagination pagination = stockProperties.getPagination();
+		if (limit == null)
+			return pagination.getDefaultLimit();
+		return Math.max(1, Math.min(limit, pagination.getMaxLimit()));
+	}
+	
+	/**
+	 * Resolves page request of the stock list page
+	 * 
+	 * @param pageable       - requested {@link Pageable}
+	 * @param sortProperties - properties the page may be sorted by
+	 * @return {@link Pageable} with a bounded size and allowed sort properties
+	 */
+	private Pageable resolvePageable(Pageable pageable, Set<String> sortProperties) {
+		int maxPageSize = stockProperties.getPagination().getMaxPageSize();
+		Sort sort = Sort.by(pageable.getSort()
+				.filter(order -> sortProperties.contains(order.getProperty()))
+				.toList());
+		if (sort.isUnsorted())
+			sort = Sort.by("name");
+		return PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), maxPageSize), sort.and(Sort.by("id")));
+	}
+	
+	/**
+	 * Builds the comparator matching the given sort of the stock list page
+	 * 
+	 * @param sort - resolved {@link Sort} ending with id
+	 * @return {@link Comparator} of {@link StockResponse}
+	 */
+	private static Comparator<StockResponse> getComparator(Sort sort) {
+		Comparator<StockResponse> comparator = null;
+		for (Sort.Order order : sort) {
+			Comparator<StockResponse> next;
+			switch (order.getProperty()) {
+			case "name":
+				next = Comparator.comparing(StockResponse::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+				break;
+			case "currentPrice":
+				next = Comparator.comparing(StockResponse::getCurrentPrice, Comparator.nullsFirst(Comparator.naturalOrder()));
+				break;
+			case "lastUpdate":
+				next = Comparator.comparing(StockResponse::getLastUpdate, Comparator.nullsFirst(Comparator.naturalOrder()));
+				break;
+			default:
+				next = Comparator.comparing(StockResponse::getId);
+			}
+			if (order.isDescending())
+				next = next.reversed();
+			comparator = comparator == null ? next : comparator.thenComparing(next);
+		}
+		return comparator;
+	}
+	
+	/**
+	 * Builds a case-insensitive like pattern matching the names which contain the
+	 * given text, wildcards within the text are matched literally
+	 * 
+	 * @param name - text the names should contain
+	 * @return like pattern
+	 */
+	private static String getLikePattern(String name) {
+		String text = name.trim().toLowerCase(Locale.ROOT)
+				.replace("\\", "\\\\")
+				.replace("%", "\\%")
+				.replace("_", "\\_");
+		return "%" + text + "%";
 	}
 	
 	/**
@@ -103,7 +811,7 @@ public class StockService {
 	 * @param stock - {@link Stock}
 	 * @return {@link StockResponse}
 	 */
-	private StockResponse getStockResponse(Stock stock) {
+	StockResponse getStockResponse(Stock stock) {
 		if (stock == null)
 			return null;
 
@@ -112,6 +820,7 @@ public class StockService {
 				.name(stock.getName())
 				.currentPrice(stock.getCurrentPrice())
 				.lastUpdate(stock.getLastUpdate())
+				.version(stock.getVersion())
 				.build();
 		return response;
 	}
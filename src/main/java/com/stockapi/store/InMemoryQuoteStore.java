@@ -0,0 +1,369 @@
+package com.stockapi.store;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.domain.Stock;
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+import com.stockapi.repository.StockRepository;
+
+/**
+ * Lock-free in-memory {@link QuoteStore}. Quotes are kept in fixed size
+ * segments of primitive arrays indexed by stock id, prices in cents and last
+ * update times in epoch milliseconds. Every slot is guarded by a sequence
+ * lock so readers never block and always see a consistent price and time, the
+ * version of a stock is the number of completed writes of its slot.
+ * Changed quotes are written to the database periodically by a background
+ * thread and once more on shutdown.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+@ConditionalOnProperty(name = "stock.storage.mode", havingValue = "memory")
+public class InMemoryQuoteStore implements QuoteStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryQuoteStore.class);
+
+	private static final int SEGMENT_BITS = 12;
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+	private static final int CHUNK_SIZE = 1000;
+
+	private final StockRepository stockRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final long snapshotInterval;
+	private final Object lock = new Object();
+	private volatile Segment[] segments = new Segment[16];
+	private ScheduledExecutorService scheduler;
+
+	public InMemoryQuoteStore(StockRepository stockRepository, PlatformTransactionManager transactionManager,
+			StockProperties stockProperties) {
+		this.stockRepository = stockRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.snapshotInterval = stockProperties.getStorage().getSnapshotInterval().toMillis();
+	}
+
+	/**
+	 * Loads all the stocks from the database once the application is ready and
+	 * starts the periodic snapshot
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		long after = 0;
+		List<StockResponse> stocks;
+		do {
+			stocks = stockRepository.findResponsesByIdGreaterThan(after, PageRequest.of(0, CHUNK_SIZE));
+			for (StockResponse stock : stocks) {
+				put(stock);
+				Segment segment = segment(stock.getId(), false);
+				segment.persisted[offset(stock.getId())] = segment.sequences.get(offset(stock.getId()));
+				after = stock.getId();
+			}
+		} while (stocks.size() == CHUNK_SIZE);
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stock-snapshot-");
+		threadFactory.setDaemon(true);
+		scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		scheduler.scheduleWithFixedDelay(this::snapshot, snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the periodic snapshot and writes the remaining changes
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the running
+	 *                              snapshot
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		if (scheduler == null)
+			return;
+		scheduler.shutdown();
+		scheduler.awaitTermination(snapshotInterval, TimeUnit.MILLISECONDS);
+		snapshot();
+	}
+
+	@Override
+	public StockResponse get(Long id) {
+		Segment segment = segment(id, false);
+		return segment == null ? null : read(id, segment, offset(id));
+	}
+
+	@Override
+	public StockResponse update(Long id, Price price, LocalDateTime lastUpdate, Long expectedVersion) {
+		Segment segment = segment(id, false);
+		int offset = offset(id);
+		String name = segment == null ? null : segment.names.get(offset);
+		if (name == null)
+			return null;
+		long cents = price.getCents();
+		long time = toEpochMilli(lastUpdate);
+		AtomicLongArray sequences = segment.sequences;
+		long sequence = lock(sequences, offset);
+		if (expectedVersion != null && version(sequence) != expectedVersion) {
+			sequences.set(offset, sequence);
+			throw new StockPreconditionFailedException("Stock version does not match for the id : " + id);
+		}
+		if (segment.updates.get(offset) > time) {
+			sequences.set(offset, sequence);
+			return read(id, segment, offset);
+		}
+		segment.prices.set(offset, cents);
+		segment.updates.set(offset, time);
+		sequences.set(offset, sequence + 2);
+		return StockResponse.builder()
+				.id(id)
+				.name(name)
+				.currentPrice(toPrice(cents))
+				.lastUpdate(toLocalDateTime(time))
+				.version(version(sequence + 2))
+				.build();
+	}
+
+	@Override
+	public void put(StockResponse stockResponse) {
+		Segment segment = segment(stockResponse.getId(), true);
+		int offset = offset(stockResponse.getId());
+		write(segment, offset, stockResponse.getCurrentPrice().getCents(), toEpochMilli(stockResponse.getLastUpdate()));
+		segment.names.set(offset, stockResponse.getName());
+	}
+
+	@Override
+	public List<StockResponse> getAfter(long after, int limit) {
+		List<StockResponse> stockResponses = new ArrayList<>(limit);
+		Segment[] current = segments;
+		for (long id = Math.max(after + 1, 0); stockResponses.size() < limit && (id >>> SEGMENT_BITS) < current.length; id++) {
+			Segment segment = current[(int) (id >>> SEGMENT_BITS)];
+			if (segment == null) {
+				id |= SEGMENT_MASK;
+				continue;
+			}
+			StockResponse stockResponse = read(id, segment, offset(id));
+			if (stockResponse != null)
+				stockResponses.add(stockResponse);
+		}
+		return stockResponses;
+	}
+
+	@Override
+	public void forEach(Consumer<StockResponse> consumer) {
+		long after = 0;
+		List<StockResponse> stockResponses;
+		do {
+			stockResponses = getAfter(after, CHUNK_SIZE);
+			stockResponses.forEach(consumer);
+			if (!stockResponses.isEmpty())
+				after = stockResponses.get(stockResponses.size() - 1).getId();
+		} while (stockResponses.size() == CHUNK_SIZE);
+	}
+
+	/**
+	 * Writes the quotes changed since the last snapshot to the database in
+	 * chunks, each chunk in its own transaction
+	 */
+	void snapshot() {
+		try {
+			Segment[] current = segments;
+			List<Change> changes = new ArrayList<>(CHUNK_SIZE);
+			for (int index = 0; index < current.length; index++) {
+				Segment segment = current[index];
+				if (segment == null)
+					continue;
+				for (int offset = 0; offset < SEGMENT_SIZE; offset++) {
+					if (segment.names.get(offset) == null)
+						continue;
+					Change change = readChange(segment, offset, ((long) index << SEGMENT_BITS) | offset);
+					if (change.sequence == segment.persisted[offset])
+						continue;
+					changes.add(change);
+					if (changes.size() == CHUNK_SIZE) {
+						persist(changes);
+						changes.clear();
+					}
+				}
+			}
+			if (!changes.isEmpty())
+				persist(changes);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Quote snapshot failed, changes will be retried with the next snapshot", e);
+		}
+	}
+
+	private void persist(List<Change> changes) {
+		Map<Long, Change> changesById = new HashMap<>();
+		changes.forEach(change -> changesById.put(change.id, change));
+		transactionTemplate.executeWithoutResult(status -> {
+			List<Stock> stocks = stockRepository.findAllById(changesById.keySet());
+			for (Stock stock : stocks) {
+				Change change = changesById.get(stock.getId());
+				stock.setCurrentPrice(toPrice(change.price));
+				stock.setLastUpdate(toLocalDateTime(change.lastUpdate));
+			}
+			stockRepository.saveAll(stocks);
+		});
+		changes.forEach(change -> change.segment.persisted[change.offset] = change.sequence);
+	}
+
+	private Segment segment(long id, boolean create) {
+		if (id < 0)
+			return null;
+		long index = id >>> SEGMENT_BITS;
+		Segment[] current = segments;
+		if (index < current.length && current[(int) index] != null)
+			return current[(int) index];
+		if (!create)
+			return null;
+		if (index >= Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Stock id is out of range : " + id);
+		synchronized (lock) {
+			current = segments;
+			if (index >= current.length)
+				current = Arrays.copyOf(current, (int) Math.max(index + 1, current.length * 2L));
+			if (current[(int) index] == null)
+				current[(int) index] = new Segment();
+			segments = current;
+			return current[(int) index];
+		}
+	}
+
+	private static int offset(long id) {
+		return (int) (id & SEGMENT_MASK);
+	}
+
+	/**
+	 * Locks a slot by making its sequence odd, concurrent writers of the same slot
+	 * spin until the sequence is even. The writer unlocks the slot by setting the
+	 * returned sequence to leave it unchanged, or the next even one
+	 * 
+	 * @return sequence of the slot before it is locked
+	 */
+	private static long lock(AtomicLongArray sequences, int offset) {
+		long sequence;
+		do {
+			sequence = sequences.get(offset);
+		} while ((sequence & 1) != 0 || !sequences.compareAndSet(offset, sequence, sequence + 1));
+		return sequence;
+	}
+
+	/**
+	 * Writes the price and the time of a slot
+	 */
+	private static void write(Segment segment, int offset, long price, long lastUpdate) {
+		long sequence = lock(segment.sequences, offset);
+		segment.prices.set(offset, price);
+		segment.updates.set(offset, lastUpdate);
+		segment.sequences.set(offset, sequence + 2);
+	}
+
+	/**
+	 * 
+	 * @return version of a slot with the given even sequence
+	 */
+	private static long version(long sequence) {
+		return sequence >>> 1;
+	}
+
+	/**
+	 * Reads a consistent price and time of a slot, retries while a writer is active
+	 */
+	private static StockResponse read(long id, Segment segment, int offset) {
+		String name = segment.names.get(offset);
+		if (name == null)
+			return null;
+		Change change = readChange(segment, offset, id);
+		return StockResponse.builder()
+				.id(id)
+				.name(name)
+				.currentPrice(toPrice(change.price))
+				.lastUpdate(toLocalDateTime(change.lastUpdate))
+				.version(version(change.sequence))
+				.build();
+	}
+
+	private static Change readChange(Segment segment, int offset, long id) {
+		AtomicLongArray sequences = segment.sequences;
+		while (true) {
+			long sequence = sequences.get(offset);
+			if ((sequence & 1) != 0)
+				continue;
+			long price = segment.prices.get(offset);
+			long lastUpdate = segment.updates.get(offset);
+			if (sequences.get(offset) == sequence)
+				return new Change(segment, offset, id, price, lastUpdate, sequence);
+		}
+	}
+
+	private static Price toPrice(long cents) {
+		return Price.ofCents(cents);
+	}
+
+	private static long toEpochMilli(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	private static LocalDateTime toLocalDateTime(long epochMilli) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+	}
+
+	/**
+	 * Quotes of {@code SEGMENT_SIZE} consecutive stock ids
+	 */
+	private static final class Segment {
+
+		private final AtomicLongArray sequences = new AtomicLongArray(SEGMENT_SIZE);
+		private final AtomicLongArray prices = new AtomicLongArray(SEGMENT_SIZE);
+		private final AtomicLongArray updates = new AtomicLongArray(SEGMENT_SIZE);
+		private final AtomicReferenceArray<String> names = new AtomicReferenceArray<>(SEGMENT_SIZE);
+		private final long[] persisted = new long[SEGMENT_SIZE];
+	}
+
+	/**
+	 * Consistent copy of a slot
+	 */
+	private static final class Change {
+
+		private final Segment segment;
+		private final int offset;
+		private final long id;
+		private final long price;
+		private final long lastUpdate;
+		private final long sequence;
+
+		private Change(Segment segment, int offset, long id, long price, long lastUpdate, long sequence) {
+			this.segment = segment;
+			this.offset = offset;
+			this.id = id;
+			this.price = price;
+			this.lastUpdate = lastUpdate;
+			this.sequence = sequence;
+		}
+	}
+}
@@ -0,0 +1,468 @@
+package com.stockapi.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.exception.StockAlreadyExistsException;
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+
+/**
+ * File-backed {@link QuoteStore} keeping quotes in memory-mapped files instead
+ * of the database. {@code quotes.dat} holds a fixed width record per stock id
+ * with a sequence lock, the price in cents, the last update time in epoch
+ * milliseconds and the offset of the name in {@code names.dat}, an append-only
+ * region of length prefixed UTF-8 names. Record zero is the file header. The
+ * version of a stock is the number of completed writes of its record.
+ * Writes go to the OS page cache so they survive a crash of the process, the
+ * files are forced to the disk periodically and on shutdown. The files are the
+ * system of record of the stocks: ids are allocated and names are kept unique
+ * by the store, the database is not used.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+@ConditionalOnProperty(name = "stock.storage.mode", havingValue = "mapped")
+public class MappedQuoteStore implements QuoteStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MappedQuoteStore.class);
+
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private static final int MAGIC = 0x53545131;
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int RECORD_SIZE = 32;
+	private static final int SEQUENCE = 0;
+	private static final int PRICE = 8;
+	private static final int LAST_UPDATE = 16;
+	private static final int NAME = 24;
+
+	private static final int SEGMENT_BITS = 15;
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+	private static final int SEGMENT_BYTES = SEGMENT_SIZE * RECORD_SIZE;
+
+	private static final int NAME_SEGMENT_BITS = 20;
+	private static final int NAME_SEGMENT_BYTES = 1 << NAME_SEGMENT_BITS;
+	private static final int NAME_SEGMENT_MASK = NAME_SEGMENT_BYTES - 1;
+	private static final long NAMES_START = 8;
+
+	private static final int CHUNK_SIZE = 1000;
+
+	private final FileChannel quotes;
+	private final FileChannel names;
+	private final long forceInterval;
+	private final Object lock = new Object();
+	private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+	private volatile MappedByteBuffer[] segments;
+	private volatile MappedByteBuffer[] nameSegments;
+	private long namesEnd;
+	private long lastId;
+	private ScheduledExecutorService scheduler;
+
+	public MappedQuoteStore(StockProperties stockProperties) throws IOException {
+		this.forceInterval = stockProperties.getStorage().getSnapshotInterval().toMillis();
+		Path directory = stockProperties.getStorage().getDirectory();
+		Files.createDirectories(directory);
+		this.quotes = FileChannel.open(directory.resolve("quotes.dat"), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.names = FileChannel.open(directory.resolve("names.dat"), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		boolean created = quotes.size() == 0;
+		this.segments = grow(new MappedByteBuffer[0], (int) Math.max(0, (quotes.size() - 1) / SEGMENT_BYTES), quotes,
+				SEGMENT_BYTES);
+		this.nameSegments = grow(new MappedByteBuffer[0], (int) Math.max(0, (names.size() - 1) / NAME_SEGMENT_BYTES),
+				names, NAME_SEGMENT_BYTES);
+
+		ByteBuffer header = segments[0];
+		if (created) {
+			header.putInt(0, MAGIC);
+			header.putInt(4, FORMAT_VERSION);
+			LONGS.setVolatile(nameSegments[0], 0, NAMES_START);
+		} else if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+			throw new IllegalStateException("Not a quote file : " + directory.resolve("quotes.dat"));
+		}
+		namesEnd = Math.max(NAMES_START, (long) LONGS.getVolatile(nameSegments[0], 0));
+		repair();
+		forEach(stock -> {
+			idsByName.put(stock.getName(), stock.getId());
+			lastId = stock.getId();
+		});
+	}
+
+	/**
+	 * Starts forcing the files to the disk periodically
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stock-quote-force-");
+		threadFactory.setDaemon(true);
+		scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		scheduler.scheduleWithFixedDelay(this::force, forceInterval, forceInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the periodic force, forces the files to the disk and closes them
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the running
+	 *                              force
+	 * @throws IOException          if the files can not be closed
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException, IOException {
+		if (scheduler != null) {
+			scheduler.shutdown();
+			scheduler.awaitTermination(forceInterval, TimeUnit.MILLISECONDS);
+		}
+		force();
+		quotes.close();
+		names.close();
+	}
+
+	@Override
+	public StockResponse get(Long id) {
+		ByteBuffer segment = segment(id, false);
+		return segment == null ? null : read(id, segment, address(id));
+	}
+
+	@Override
+	public StockResponse update(Long id, Price price, LocalDateTime lastUpdate, Long expectedVersion) {
+		ByteBuffer segment = segment(id, false);
+		int address = address(id);
+		if (segment == null || (long) LONGS.getVolatile(segment, address + NAME) == 0)
+			return null;
+		long time = toEpochMilli(lastUpdate);
+		long sequence = lock(segment, address);
+		if (expectedVersion != null && version(sequence) != expectedVersion) {
+			LONGS.setRelease(segment, address + SEQUENCE, sequence);
+			throw new StockPreconditionFailedException("Stock version does not match for the id : " + id);
+		}
+		if ((long) LONGS.get(segment, address + LAST_UPDATE) > time) {
+			LONGS.setRelease(segment, address + SEQUENCE, sequence);
+			return read(id, segment, address);
+		}
+		LONGS.set(segment, address + PRICE, price.getCents());
+		LONGS.set(segment, address + LAST_UPDATE, time);
+		long nameOffset = (long) LONGS.get(segment, address + NAME);
+		LONGS.setRelease(segment, address + SEQUENCE, sequence + 2);
+		return StockResponse.builder()
+				.id(id)
+				.name(readName(nameOffset))
+				.currentPrice(price)
+				.lastUpdate(toLocalDateTime(time))
+				.version(version(sequence + 2))
+				.build();
+	}
+
+	@Override
+	public StockResponse create(String name, Price price, LocalDateTime lastUpdate) {
+		long time = toEpochMilli(lastUpdate);
+		synchronized (lock) {
+			if (idsByName.containsKey(name))
+				throw new StockAlreadyExistsException("Stock already exists with the name : " + name);
+			long id = lastId + 1;
+			ByteBuffer segment = segment(id, true);
+			long sequence = write(segment, address(id), price.getCents(), time, appendName(name));
+			idsByName.put(name, id);
+			lastId = id;
+			return StockResponse.builder()
+					.id(id)
+					.name(name)
+					.currentPrice(price)
+					.lastUpdate(toLocalDateTime(time))
+					.version(version(sequence))
+					.build();
+		}
+	}
+
+	@Override
+	public boolean ownsStocks() {
+		return true;
+	}
+
+	@Override
+	public void put(StockResponse stockResponse) {
+		Long id = stockResponse.getId();
+		synchronized (lock) {
+			ByteBuffer segment = segment(id, true);
+			int address = address(id);
+			StockResponse stored = read(id, segment, address);
+			long nameOffset;
+			if (stored != null && stored.getName().equals(stockResponse.getName())) {
+				nameOffset = (long) LONGS.getVolatile(segment, address + NAME);
+			} else {
+				Long existing = idsByName.get(stockResponse.getName());
+				if (existing != null && !existing.equals(id))
+					throw new StockAlreadyExistsException("Stock already exists with the name : " + stockResponse.getName());
+				nameOffset = appendName(stockResponse.getName());
+				if (stored != null)
+					idsByName.remove(stored.getName(), id);
+				idsByName.put(stockResponse.getName(), id);
+			}
+			write(segment, address, stockResponse.getCurrentPrice().getCents(),
+					toEpochMilli(stockResponse.getLastUpdate()), nameOffset);
+			lastId = Math.max(lastId, id);
+		}
+	}
+
+	@Override
+	public List<StockResponse> getAfter(long after, int limit) {
+		List<StockResponse> stockResponses = new ArrayList<>(limit);
+		MappedByteBuffer[] current = segments;
+		for (long id = Math.max(after + 1, 1); stockResponses.size() < limit && (id >>> SEGMENT_BITS) < current.length; id++) {
+			StockResponse stockResponse = read(id, current[(int) (id >>> SEGMENT_BITS)], address(id));
+			if (stockResponse != null)
+				stockResponses.add(stockResponse);
+		}
+		return stockResponses;
+	}
+
+	@Override
+	public void forEach(Consumer<StockResponse> consumer) {
+		long after = 0;
+		List<StockResponse> stockResponses;
+		do {
+			stockResponses = getAfter(after, CHUNK_SIZE);
+			stockResponses.forEach(consumer);
+			if (!stockResponses.isEmpty())
+				after = stockResponses.get(stockResponses.size() - 1).getId();
+		} while (stockResponses.size() == CHUNK_SIZE);
+	}
+
+	/**
+	 * Writes the changed pages of both files to the disk
+	 */
+	void force() {
+		try {
+			for (MappedByteBuffer segment : segments)
+				segment.force();
+			for (MappedByteBuffer nameSegment : nameSegments)
+				nameSegment.force();
+		} catch (RuntimeException e) {
+			LOGGER.warn("Forcing the quote files to the disk failed, it will be retried", e);
+		}
+	}
+
+	/**
+	 * Unlocks the records whose writer did not finish, such a record keeps the
+	 * values written before the crash. The header record is skipped
+	 */
+	private void repair() {
+		MappedByteBuffer[] current = segments;
+		for (int index = 0; index < current.length; index++)
+			for (int offset = index == 0 ? 1 : 0; offset < SEGMENT_SIZE; offset++) {
+				ByteBuffer segment = current[index];
+				int address = offset * RECORD_SIZE;
+				long sequence = (long) LONGS.getVolatile(segment, address + SEQUENCE);
+				if ((sequence & 1) != 0)
+					LONGS.setVolatile(segment, address + SEQUENCE, sequence + 1);
+			}
+	}
+
+	/**
+	 * Returns the mapped segment of the given stock id, maps it and grows the
+	 * file if it is beyond the end of the file. There is no segment for ids
+	 * below one, record zero is the file header
+	 */
+	private MappedByteBuffer segment(long id, boolean create) {
+		if (id < 1) {
+			if (create)
+				throw new IllegalArgumentException("Stock id is out of range : " + id);
+			return null;
+		}
+		long index = id >>> SEGMENT_BITS;
+		MappedByteBuffer[] current = segments;
+		if (index < current.length)
+			return current[(int) index];
+		if (!create)
+			return null;
+		if (index >= Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Stock id is out of range : " + id);
+		synchronized (lock) {
+			if (index >= segments.length)
+				segments = grow(segments, (int) index, quotes, SEGMENT_BYTES);
+			return segments[(int) index];
+		}
+	}
+
+	private MappedByteBuffer nameSegment(long index) {
+		MappedByteBuffer[] current = nameSegments;
+		if (index < current.length)
+			return current[(int) index];
+		synchronized (lock) {
+			if (index >= nameSegments.length)
+				nameSegments = grow(nameSegments, (int) index, names, NAME_SEGMENT_BYTES);
+			return nameSegments[(int) index];
+		}
+	}
+
+	/**
+	 * Maps the segments up to the given index, the file grows as needed
+	 */
+	private static MappedByteBuffer[] grow(MappedByteBuffer[] current, int index, FileChannel channel, int size) {
+		MappedByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+		for (int i = current.length; i <= index; i++)
+			grown[i] = map(channel, (long) i * size, size);
+		return grown;
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long position, int size) {
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return buffer;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static int address(long id) {
+		return (int) (id & SEGMENT_MASK) * RECORD_SIZE;
+	}
+
+	/**
+	 * Appends a name to the name region, a name never spans two segments. The
+	 * end of the region is published after the name is written
+	 * 
+	 * @return offset of the name
+	 */
+	private long appendName(String name) {
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		int size = Integer.BYTES + bytes.length;
+		if (size > NAME_SEGMENT_BYTES)
+			throw new IllegalArgumentException("Stock name is too long : " + name.length());
+		synchronized (lock) {
+			long offset = namesEnd;
+			if ((offset & NAME_SEGMENT_MASK) + size > NAME_SEGMENT_BYTES)
+				offset = (offset | NAME_SEGMENT_MASK) + 1;
+			ByteBuffer segment = nameSegment(offset >>> NAME_SEGMENT_BITS).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			int position = (int) (offset & NAME_SEGMENT_MASK);
+			segment.putInt(position, bytes.length);
+			segment.position(position + Integer.BYTES);
+			segment.put(bytes);
+			namesEnd = offset + size;
+			LONGS.setVolatile(nameSegments[0], 0, namesEnd);
+			return offset;
+		}
+	}
+
+	private String readName(long offset) {
+		ByteBuffer segment = nameSegment(offset >>> NAME_SEGMENT_BITS).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int position = (int) (offset & NAME_SEGMENT_MASK);
+		byte[] bytes = new byte[segment.getInt(position)];
+		segment.position(position + Integer.BYTES);
+		segment.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Locks a record by making its sequence odd, concurrent writers of the same
+	 * record spin until the sequence is even. The writer unlocks the record by
+	 * setting the returned sequence to leave it unchanged, or the next even one
+	 * 
+	 * @return sequence of the record before it is locked
+	 */
+	private static long lock(ByteBuffer segment, int address) {
+		long sequence;
+		do {
+			sequence = (long) LONGS.getVolatile(segment, address + SEQUENCE);
+		} while ((sequence & 1) != 0 || !LONGS.compareAndSet(segment, address + SEQUENCE, sequence, sequence + 1));
+		return sequence;
+	}
+
+	/**
+	 * Writes a record
+	 * 
+	 * @param nameOffset - offset of the name
+	 * @return sequence of the record after the write
+	 */
+	private static long write(ByteBuffer segment, int address, long price, long lastUpdate, long nameOffset) {
+		long sequence = lock(segment, address);
+		LONGS.set(segment, address + PRICE, price);
+		LONGS.set(segment, address + LAST_UPDATE, lastUpdate);
+		LONGS.set(segment, address + NAME, nameOffset);
+		LONGS.setRelease(segment, address + SEQUENCE, sequence + 2);
+		return sequence + 2;
+	}
+
+	/**
+	 * 
+	 * @return version of a record with the given even sequence
+	 */
+	private static long version(long sequence) {
+		return sequence >>> 1;
+	}
+
+	/**
+	 * Reads a consistent record, retries while a writer is active
+	 * 
+	 * @return {@link StockResponse} or null if there is no stock with the id
+	 */
+	private StockResponse read(long id, ByteBuffer segment, int address) {
+		while (true) {
+			long sequence = (long) LONGS.getAcquire(segment, address + SEQUENCE);
+			if ((sequence & 1) != 0)
+				continue;
+			long price = (long) LONGS.get(segment, address + PRICE);
+			long lastUpdate = (long) LONGS.get(segment, address + LAST_UPDATE);
+			long nameOffset = (long) LONGS.get(segment, address + NAME);
+			VarHandle.acquireFence();
+			if ((long) LONGS.getAcquire(segment, address + SEQUENCE) != sequence)
+				continue;
+			if (nameOffset == 0)
+				return null;
+			return StockResponse.builder()
+					.id(id)
+					.name(readName(nameOffset))
+					.currentPrice(Price.ofCents(price))
+					.lastUpdate(toLocalDateTime(lastUpdate))
+					.version(version(sequence))
+					.build();
+		}
+	}
+
+	private static long toEpochMilli(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	private static LocalDateTime toLocalDateTime(long epochMilli) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+	}
+}
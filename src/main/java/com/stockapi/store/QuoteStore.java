@@ -0,0 +1,107 @@
+package com.stockapi.store;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.stockapi.exception.StockAlreadyExistsException;
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+
+/**
+ * Alternative storage backend for stock quotes used by the service instead of
+ * the {@link com.stockapi.repository.StockRepository} for reads and price
+ * updates. Unless the store owns the stocks, they are still created through
+ * the repository which allocates the ids and enforces unique names. Every
+ * change of a stock in the store increments its version, which is independent
+ * of the version of the database row.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public interface QuoteStore {
+
+	/**
+	 * 
+	 * @param id - stock id
+	 * @return {@link StockResponse} or null if the stock is not in the store
+	 */
+	StockResponse get(Long id);
+
+	/**
+	 * Updates the price of the stock if it is in the store, unless the stored
+	 * price is newer than the given time
+	 * 
+	 * @param id         - stock id
+	 * @param price      - new price
+	 * @param lastUpdate - time of the new price
+	 * @return updated {@link StockResponse}, the newer stored one if the update
+	 *         is stale or null if the stock is not in the store
+	 */
+	default StockResponse update(Long id, Price price, LocalDateTime lastUpdate) {
+		return update(id, price, lastUpdate, null);
+	}
+
+	/**
+	 * Updates the price of the stock if it is in the store and still has the
+	 * expected version, unless the stored price is newer than the given time. The
+	 * version is checked and incremented atomically with the update
+	 * 
+	 * @param id              - stock id
+	 * @param price           - new price
+	 * @param lastUpdate      - time of the new price
+	 * @param expectedVersion - version the client has read, null for any version
+	 * @return updated {@link StockResponse}, the newer stored one if the update
+	 *         is stale or null if the stock is not in the store
+	 * @throws StockPreconditionFailedException if the stored version is not the
+	 *                                          expected one
+	 */
+	StockResponse update(Long id, Price price, LocalDateTime lastUpdate, Long expectedVersion);
+
+	/**
+	 * Creates a stock with the next free id, only supported by a store which owns
+	 * the stocks
+	 * 
+	 * @param name       - stock name
+	 * @param price      - current price
+	 * @param lastUpdate - time of the price
+	 * @return created {@link StockResponse}
+	 * @throws StockAlreadyExistsException if a stock exists with the name
+	 */
+	default StockResponse create(String name, Price price, LocalDateTime lastUpdate) {
+		throw new UnsupportedOperationException("Stocks are created through the repository");
+	}
+
+	/**
+	 * 
+	 * @return true if the store is the system of record of the stocks and
+	 *         allocates their ids, false if it mirrors the repository
+	 */
+	default boolean ownsStocks() {
+		return false;
+	}
+
+	/**
+	 * Adds or replaces the given stock
+	 * 
+	 * @param stockResponse - {@link StockResponse}
+	 */
+	void put(StockResponse stockResponse);
+
+	/**
+	 * 
+	 * @param after - id of the last stock of the previous page
+	 * @param limit - page size
+	 * @return list of {@link StockResponse} whose id is greater than the given id
+	 *         ordered by id
+	 */
+	List<StockResponse> getAfter(long after, int limit);
+
+	/**
+	 * Passes every stock to the given consumer ordered by id
+	 * 
+	 * @param consumer - {@link Consumer} of {@link StockResponse}
+	 */
+	void forEach(Consumer<StockResponse> consumer);
+}
@@ -0,0 +1,238 @@
+package com.stockapi.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stockapi.cache.StockCache;
+import com.stockapi.config.StockProperties;
+import com.stockapi.domain.Stock;
+import com.stockapi.model.StockResponse;
+import com.stockapi.repository.StockRepository;
+
+/**
+ * Write-behind buffer of price updates. Updates are kept per stock id where a
+ * newer update replaces the pending one, and are written to the database in
+ * batches by a single background thread on a fixed interval or as soon as a
+ * batch is full. The number of pending stocks is bounded, pending updates are
+ * drained on shutdown.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+@ConditionalOnProperty(name = "stock.write-behind.enabled", havingValue = "true")
+public class StockWriteBehind {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StockWriteBehind.class);
+
+	private final StockRepository stockRepository;
+	private final StockCache stockCache;
+	private final TransactionTemplate transactionTemplate;
+	private final StockProperties.WriteBehind properties;
+	private final ConcurrentMap<Long, StockResponse> pending = new ConcurrentHashMap<>();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private final AtomicLong flushes = new AtomicLong();
+	private final AtomicLong flushedUpdates = new AtomicLong();
+	private final AtomicLong coalescedUpdates = new AtomicLong();
+	private final AtomicLong failedFlushes = new AtomicLong();
+	private final ScheduledExecutorService scheduler;
+
+	public StockWriteBehind(StockRepository stockRepository, StockCache stockCache,
+			PlatformTransactionManager transactionManager, StockProperties stockProperties) {
+		this.stockRepository = stockRepository;
+		this.stockCache = stockCache;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.properties = stockProperties.getWriteBehind();
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stock-write-behind-");
+		threadFactory.setDaemon(true);
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		long interval = properties.getFlushInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Buffers the updated stock replacing its pending update if any, unless the
+	 * pending update is newer
+	 * 
+	 * @param stockResponse - {@link StockResponse} with the new price
+	 * @return false if the buffer is full and the update has to be written by
+	 *         the caller
+	 */
+	public boolean offer(StockResponse stockResponse) {
+		if (pending.size() >= properties.getMaxPending() && !pending.containsKey(stockResponse.getId())) {
+			requestFlush();
+			return false;
+		}
+		pending.compute(stockResponse.getId(), (id, previous) -> {
+			if (previous == null)
+				return stockResponse;
+			coalescedUpdates.incrementAndGet();
+			return previous.getLastUpdate().isAfter(stockResponse.getLastUpdate()) ? previous : stockResponse;
+		});
+		if (pending.size() >= properties.getBatchSize())
+			requestFlush();
+		return true;
+	}
+
+	/**
+	 * Drops the pending update of the given stock unless it is newer than the
+	 * given stock, which has been written to the database by another path
+	 * 
+	 * @param stockResponse - {@link StockResponse} as written to the database
+	 */
+	public void discard(StockResponse stockResponse) {
+		pending.computeIfPresent(stockResponse.getId(),
+				(id, previous) -> previous.getLastUpdate().isAfter(stockResponse.getLastUpdate()) ? previous : null);
+	}
+
+	/**
+	 * 
+	 * @param id - stock id
+	 * @return pending {@link StockResponse} of the stock or null if it has none
+	 */
+	public StockResponse getPending(Long id) {
+		return pending.get(id);
+	}
+
+	/**
+	 * Writes all pending updates to the database in batches, each batch in its own
+	 * transaction. An update older than the stored one is skipped, a failed batch
+	 * is put back unless a newer update arrived in the meantime. The cache gets
+	 * the written stocks with their new versions and the skipped ones as stored.
+	 * Flushes never overlap
+	 */
+	synchronized void flush() {
+		flushRequested.set(false);
+		while (!pending.isEmpty()) {
+			Map<Long, StockResponse> batch = new HashMap<>();
+			Iterator<Map.Entry<Long, StockResponse>> iterator = pending.entrySet().iterator();
+			while (iterator.hasNext() && batch.size() < properties.getBatchSize()) {
+				Map.Entry<Long, StockResponse> entry = iterator.next();
+				if (pending.remove(entry.getKey(), entry.getValue()))
+					batch.put(entry.getKey(), entry.getValue());
+			}
+			try {
+				write(batch);
+			} catch (RuntimeException e) {
+				failedFlushes.incrementAndGet();
+				batch.forEach(pending::putIfAbsent);
+				LOGGER.warn("Write-behind flush of {} updates failed, they will be retried", batch.size(), e);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @return number of stocks with a pending update
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * 
+	 * @return number of flushed batches
+	 */
+	public long getFlushCount() {
+		return flushes.get();
+	}
+
+	/**
+	 * 
+	 * @return number of updates written to the database, older updates which
+	 *         were skipped are not counted
+	 */
+	public long getFlushedCount() {
+		return flushedUpdates.get();
+	}
+
+	/**
+	 * 
+	 * @return number of updates replaced by a newer update before being written
+	 */
+	public long getCoalescedCount() {
+		return coalescedUpdates.get();
+	}
+
+	/**
+	 * 
+	 * @return number of failed batches
+	 */
+	public long getFailedFlushCount() {
+		return failedFlushes.get();
+	}
+
+	/**
+	 * Stops the background flush and drains the pending updates once the running
+	 * flush, if any, has finished
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the running
+	 *                              flush
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		scheduler.shutdown();
+		scheduler.awaitTermination(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+		flush();
+	}
+
+	private void requestFlush() {
+		if (!flushRequested.compareAndSet(false, true))
+			return;
+		try {
+			scheduler.execute(this::flush);
+		} catch (RejectedExecutionException e) {
+			flushRequested.set(false);
+		}
+	}
+
+	private void write(Map<Long, StockResponse> batch) {
+		List<Stock> stocks = new ArrayList<>();
+		int written = transactionTemplate.execute(status -> {
+			stocks.addAll(stockRepository.findAllById(batch.keySet()));
+			List<Stock> changed = new ArrayList<>();
+			for (Stock stock : stocks) {
+				StockResponse stockResponse = batch.get(stock.getId());
+				if (stock.getLastUpdate() != null && stock.getLastUpdate().isAfter(stockResponse.getLastUpdate()))
+					continue;
+				stock.setCurrentPrice(stockResponse.getCurrentPrice());
+				stock.setLastUpdate(stockResponse.getLastUpdate());
+				changed.add(stock);
+			}
+			stockRepository.saveAll(changed);
+			return changed.size();
+		});
+		for (Stock stock : stocks)
+			stockCache.put(StockResponse.builder()
+					.id(stock.getId())
+					.name(stock.getName())
+					.currentPrice(stock.getCurrentPrice())
+					.lastUpdate(stock.getLastUpdate())
+					.version(stock.getVersion())
+					.build());
+		flushes.incrementAndGet();
+		flushedUpdates.addAndGet(written);
+	}
+}
@@ -0,0 +1,249 @@
+package com.stockapi.stream;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.event.StockChangedEvent;
+import com.stockapi.model.StockResponse;
+
+/**
+ * Pushes stock changes to server-sent events subscribers. Every subscriber has
+ * a bounded buffer which keeps only the latest unsent change per stock, so
+ * intermediate ticks are conflated for slow consumers. Events are written by a
+ * dedicated thread pool with at most one drain in flight per subscriber, a
+ * drain sends at most one buffer of events before it yields the thread to the
+ * other subscribers. Publishing never blocks the update path, a subscriber
+ * whose buffer is full or whose client does not take a single event within
+ * the send timeout is disconnected. The writer blocked on a stalled client is
+ * replaced by a new thread until its write fails, so stalled clients never
+ * hold back the others.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Component
+public class StockPriceStream {
+
+	private final StockProperties.Stream properties;
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final ThreadPoolExecutor executor;
+	private final ScheduledExecutorService watchdog;
+	private final long sendTimeout;
+
+	public StockPriceStream(StockProperties stockProperties) {
+		this.properties = stockProperties.getStream();
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stock-stream-");
+		threadFactory.setDaemon(true);
+		this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), threadFactory);
+		CustomizableThreadFactory watchdogThreadFactory = new CustomizableThreadFactory("stock-stream-watchdog-");
+		watchdogThreadFactory.setDaemon(true);
+		this.watchdog = Executors.newSingleThreadScheduledExecutor(watchdogThreadFactory);
+		this.sendTimeout = properties.getSendTimeout().toNanos();
+		long period = Math.max(sendTimeout / 2, TimeUnit.MILLISECONDS.toNanos(10));
+		watchdog.scheduleWithFixedDelay(this::disconnectStalled, period, period, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Registers a new subscriber
+	 * 
+	 * @param ids - ids of the stocks to receive, all stocks if empty
+	 * @return {@link SseEmitter} of the subscriber
+	 */
+	public SseEmitter subscribe(Set<Long> ids) {
+		SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+		Subscriber subscriber = new Subscriber(emitter, ids);
+		subscribers.add(subscriber);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(subscriber::disconnect);
+		emitter.onError(error -> subscriber.disconnect());
+		return emitter;
+	}
+
+	/**
+	 * Publishes the changed stock to the subscribers after the transaction which
+	 * changed it commits
+	 * 
+	 * @param event - {@link StockChangedEvent}
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onStockChanged(StockChangedEvent event) {
+		publish(event.getStock());
+	}
+
+	/**
+	 * Offers the stock to every subscriber without blocking
+	 * 
+	 * @param stockResponse - {@link StockResponse}
+	 */
+	public void publish(StockResponse stockResponse) {
+		for (Subscriber subscriber : subscribers)
+			subscriber.offer(stockResponse);
+	}
+
+	/**
+	 * 
+	 * @return number of active subscribers
+	 */
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		watchdog.shutdownNow();
+		subscribers.forEach(Subscriber::disconnect);
+		executor.shutdown();
+	}
+
+	/**
+	 * Disconnects the subscribers whose current event has been written for
+	 * longer than the send timeout and adds a writer thread for each of them
+	 * until their blocked write returns
+	 */
+	private void disconnectStalled() {
+		long now = System.nanoTime();
+		for (Subscriber subscriber : subscribers) {
+			long sendStarted = subscriber.sendStarted;
+			if (sendStarted != 0 && now - sendStarted > sendTimeout && subscriber.stalled.compareAndSet(false, true)) {
+				resizeWriters(1);
+				subscriber.disconnect();
+			}
+		}
+	}
+
+	/**
+	 * Grows or shrinks the writer pool by the given number of threads
+	 * 
+	 * @param delta - number of threads to add, negative to remove
+	 */
+	private void resizeWriters(int delta) {
+		synchronized (executor) {
+			int size = executor.getCorePoolSize() + delta;
+			if (delta > 0) {
+				executor.setMaximumPoolSize(size);
+				executor.setCorePoolSize(size);
+			} else {
+				executor.setCorePoolSize(size);
+				executor.setMaximumPoolSize(size);
+			}
+		}
+	}
+
+	/**
+	 * Single SSE subscriber with its own conflating buffer
+	 */
+	private class Subscriber {
+
+		private final SseEmitter emitter;
+		private final Set<Long> ids;
+		private final ConcurrentMap<Long, StockResponse> pending = new ConcurrentHashMap<>();
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private final AtomicBoolean closed = new AtomicBoolean();
+		private final AtomicBoolean stalled = new AtomicBoolean();
+		private volatile long sendStarted;
+
+		private Subscriber(SseEmitter emitter, Set<Long> ids) {
+			this.emitter = emitter;
+			this.ids = ids;
+		}
+
+		/**
+		 * Buffers the stock replacing its unsent change if any and schedules a drain
+		 * 
+		 * @param stockResponse - {@link StockResponse}
+		 */
+		private void offer(StockResponse stockResponse) {
+			if (!ids.isEmpty() && !ids.contains(stockResponse.getId()))
+				return;
+			if (pending.size() >= properties.getBufferSize() && !pending.containsKey(stockResponse.getId())) {
+				disconnect();
+				return;
+			}
+			pending.put(stockResponse.getId(), stockResponse);
+			schedule();
+		}
+
+		private void schedule() {
+			if (!scheduled.compareAndSet(false, true))
+				return;
+			try {
+				executor.execute(this::drain);
+			} catch (RejectedExecutionException e) {
+				close();
+			}
+		}
+
+		/**
+		 * Writes at most one buffer of changes to the client, the rest are left for
+		 * the next drain. Completes the emitter once the subscriber is disconnected
+		 */
+		private void drain() {
+			boolean failed = false;
+			try {
+				Iterator<Long> pendingIds = pending.keySet().iterator();
+				for (int sent = 0; sent < properties.getBufferSize() && !closed.get() && pendingIds.hasNext();) {
+					Long id = pendingIds.next();
+					StockResponse stockResponse = pending.remove(id);
+					if (stockResponse == null)
+						continue;
+					sendStarted = System.nanoTime();
+					emitter.send(SseEmitter.event()
+							.id(String.valueOf(id))
+							.name("price")
+							.data(stockResponse, MediaType.APPLICATION_JSON));
+					sendStarted = 0;
+					sent++;
+				}
+			} catch (IOException | IllegalStateException e) {
+				failed = true;
+			} finally {
+				sendStarted = 0;
+				if (stalled.compareAndSet(true, false))
+					resizeWriters(-1);
+				scheduled.set(false);
+			}
+			if (failed || closed.get())
+				close();
+			else if (!pending.isEmpty())
+				schedule();
+		}
+
+		/**
+		 * Stops buffering changes for the subscriber without blocking, the emitter
+		 * is completed by the drain in flight or by a new one
+		 */
+		private void disconnect() {
+			closed.set(true);
+			subscribers.remove(this);
+			pending.clear();
+			schedule();
+		}
+
+		private void close() {
+			closed.set(true);
+			subscribers.remove(this);
+			pending.clear();
+			emitter.complete();
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.stockapi.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.model.BatchItemResponse;
+import com.stockapi.model.ImportResponse;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockRequest;
+import com.stockapi.service.StockService;
+
+/**
+ * Stock importer unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class StockImporterTest {
+
+	@Mock
+	private StockService stockService;
+
+	private StockProperties stockProperties;
+
+	private StockImporter stockImporter;
+
+	private List<StockRequest> created;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		MockitoAnnotations.openMocks(this);
+
+		created = new ArrayList<>();
+		when(stockService.createStocks(anyList())).thenAnswer(invocation -> {
+			List<StockRequest> stockRequests = invocation.getArgument(0);
+			List<BatchItemResponse> results = new ArrayList<>();
+			for (int i = 0; i < stockRequests.size(); i++) {
+				StockRequest stockRequest = stockRequests.get(i);
+				if (stockRequest.getName().isEmpty()) {
+					results.add(BatchItemResponse.builder().index(i).status(HttpStatus.BAD_REQUEST)
+							.errorMessage(Arrays.asList("Name can not be empty!")).build());
+				} else {
+					created.add(stockRequest);
+					results.add(BatchItemResponse.builder().index(i).status(HttpStatus.CREATED).build());
+				}
+			}
+			return results;
+		});
+
+		stockProperties = new StockProperties();
+		stockImporter = new StockImporter(stockService, Jackson2ObjectMapperBuilder.json().build(), stockProperties);
+	}
+
+	@Test
+	public void importCsv() throws Exception {
+		String csv = "id,name,currentPrice,lastUpdate\n"
+				+ "1,GameStop Corp.,325.00,2021-02-01T10:00\n"
+				+ "\n"
+				+ "2,\"Berkshire Hathaway, Inc. \"\"B\"\"\",250.5,\n"
+				+ "3,Nokia Oyj,four\n"
+				+ "4,,4.56\n";
+
+		ImportResponse importResponse = importStocks(csv, "text/csv");
+
+		assertEquals(4, importResponse.getRows());
+		assertEquals(2, importResponse.getCreated());
+		assertEquals(2, importResponse.getFailed());
+		assertEquals("Berkshire Hathaway, Inc. \"B\"", created.get(1).getName());
+		assertEquals(Price.parse("250.50"), created.get(1).getCurrentPrice());
+		assertEquals(5, importResponse.getErrors().get(0).getLine());
+		assertEquals("Illegal format for price!", importResponse.getErrors().get(0).getErrorMessage().get(0));
+		assertEquals(6, importResponse.getErrors().get(1).getLine());
+	}
+
+	@Test
+	public void importCsvWithoutHeader() throws Exception {
+		ImportResponse importResponse = importStocks("Tesla Inc,793.53\nBlackBerry Ltd,14.10\n", "text/csv;charset=UTF-8");
+
+		assertEquals(2, importResponse.getCreated());
+		assertEquals("Tesla Inc", created.get(0).getName());
+	}
+
+	@Test
+	public void importNdjson() throws Exception {
+		String ndjson = "{\"name\":\"Tesla Inc\",\"currentPrice\":793.53}\n"
+				+ "{\"name\":\"Nokia Oyj\",\"currentPrice\":\"abc\"}\n"
+				+ "{\"name\":\n"
+				+ "{\"id\":4,\"name\":\"AMC Entertainment Holdings Inc\",\"currentPrice\":13.26,\"lastUpdate\":\"2021-02-01T10:00:00\"}\n";
+
+		ImportResponse importResponse = importStocks(ndjson, "application/x-ndjson");
+
+		assertEquals(4, importResponse.getRows());
+		assertEquals(2, importResponse.getCreated());
+		assertEquals("Illegal format for price!", importResponse.getErrors().get(0).getErrorMessage().get(0));
+		assertEquals("Illegal format for row!", importResponse.getErrors().get(1).getErrorMessage().get(0));
+		assertEquals(3, importResponse.getErrors().get(1).getLine());
+	}
+
+	@Test
+	public void importInChunksWithLimitedErrors() throws Exception {
+		stockProperties.getBulk().setChunkSize(10);
+		stockProperties.getBulk().setMaxErrors(5);
+		stockImporter = new StockImporter(stockService, Jackson2ObjectMapperBuilder.json().build(), stockProperties);
+		StringBuilder csv = new StringBuilder("name,currentPrice\n");
+		for (int i = 0; i < 100; i++)
+			csv.append("Stock ").append(i).append(',').append(i % 2 == 0 ? "1.00" : "x").append('\n');
+
+		ImportResponse importResponse = importStocks(csv.toString(), "text/csv");
+
+		assertEquals(100, importResponse.getRows());
+		assertEquals(50, importResponse.getCreated());
+		assertEquals(50, importResponse.getFailed());
+		assertEquals(5, importResponse.getErrors().size());
+		assertEquals("Stock 98", created.get(49).getName());
+		verify(stockService, times(10)).createStocks(anyList());
+	}
+
+	@Test
+	public void parseCsvWithUnclosedQuote() throws Exception {
+		assertEquals(Arrays.asList("a", "", "b,c"), StockImporter.parseCsv("a,,\"b,c\""));
+		assertThrows(IllegalArgumentException.class, () -> StockImporter.parseCsv("\"a,b"));
+	}
+
+	private ImportResponse importStocks(String content, String contentType) throws Exception {
+		return stockImporter.importStocks(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+				MediaType.parseMediaType(contentType));
+	}
+}
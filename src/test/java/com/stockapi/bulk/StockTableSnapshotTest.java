@@ -0,0 +1,96 @@
+package com.stockapi.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.domain.Stock;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+import com.stockapi.repository.StockRepository;
+import com.stockapi.service.StockService;
+
+/**
+ * Stock table snapshot unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class StockTableSnapshotTest {
+
+	@Mock
+	private StockService stockService;
+
+	@Mock
+	private StockRepository stockRepository;
+
+	private StockTableSnapshot stockTableSnapshot;
+
+	private List<StockResponse> stocks;
+
+	private List<Stock> saved;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		MockitoAnnotations.openMocks(this);
+
+		LocalDateTime now = LocalDateTime.of(2021, 2, 1, 10, 0);
+		stocks = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			stocks.add(StockResponse.builder().id((long) i + 1).name("Stock " + i).currentPrice(Price.ofCents(100 + i))
+					.lastUpdate(now.plusSeconds(i)).build());
+		doAnswer(invocation -> {
+			stocks.forEach((Consumer<StockResponse>) invocation.getArgument(0));
+			return null;
+		}).when(stockService).streamStocks(any());
+
+		saved = new ArrayList<>();
+		when(stockRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+			((Iterable<Stock>) invocation.getArgument(0)).forEach(saved::add);
+			return new ArrayList<>(saved);
+		});
+
+		StockProperties stockProperties = new StockProperties();
+		stockProperties.getBulk().setChunkSize(2);
+		stockTableSnapshot = new StockTableSnapshot(stockService, stockRepository, null, stockProperties);
+	}
+
+	@Test
+	public void writeAndLoad() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		stockTableSnapshot.write(outputStream);
+
+		long count = stockTableSnapshot.load(new ByteArrayResource(outputStream.toByteArray()));
+
+		assertEquals(5, count);
+		assertEquals(5, saved.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(stocks.get(i).getName(), saved.get(i).getName());
+			assertEquals(stocks.get(i).getCurrentPrice(), saved.get(i).getCurrentPrice());
+			assertEquals(stocks.get(i).getLastUpdate(), saved.get(i).getLastUpdate());
+		}
+	}
+
+	@Test
+	public void loadRejectsOtherContent() throws Exception {
+		assertThrows(IOException.class, () -> stockTableSnapshot.load(new ByteArrayResource("id,name\n".getBytes())));
+	}
+}
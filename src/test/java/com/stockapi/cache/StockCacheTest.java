@@ -0,0 +1,74 @@
+package com.stockapi.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+
+/**
+ * Stock cache unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class StockCacheTest {
+
+	private StockCache stockCache;
+
+	private StockResponse tsla;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		stockCache = new StockCache(new StockProperties());
+
+		tsla = StockResponse.builder().id(5L).name("Tesla Inc").currentPrice(Price.parse("793.53"))
+				.lastUpdate(LocalDateTime.now()).build();
+	}
+
+	@Test
+	public void getLoadsOnlyOnce() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+
+		stockCache.get(tsla.getId(), id -> { loads.incrementAndGet(); return tsla; });
+		StockResponse stockResponse = stockCache.get(tsla.getId(), id -> { loads.incrementAndGet(); return tsla; });
+
+		assertSame(tsla, stockResponse);
+		assertEquals(1, loads.get());
+		assertEquals(1, stockCache.stats().hitCount());
+		assertEquals(1, stockCache.stats().missCount());
+	}
+
+	@Test
+	public void getIfPresentAfterPut() throws Exception {
+		stockCache.put(tsla);
+
+		assertSame(tsla, stockCache.getIfPresent(tsla.getName()));
+	}
+
+	@Test
+	public void getIfPresentOfUnknownName() throws Exception {
+		assertNull(stockCache.getIfPresent("Apple Inc"));
+	}
+
+	@Test
+	public void getWhenDisabled() throws Exception {
+		StockProperties stockProperties = new StockProperties();
+		stockProperties.getCache().setEnabled(false);
+		stockCache = new StockCache(stockProperties);
+		AtomicInteger loads = new AtomicInteger();
+
+		stockCache.put(tsla);
+		stockCache.get(tsla.getId(), id -> { loads.incrementAndGet(); return tsla; });
+
+		assertEquals(1, loads.get());
+	}
+}
@@ -0,0 +1,116 @@
+package com.stockapi.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockapi.config.StockProperties;
+import com.stockapi.event.StockChangedEvent;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+import com.stockapi.service.StockService;
+
+/**
+ * Stock list snapshot unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class StockListSnapshotTest {
+
+	@Mock
+	private StockService stockService;
+
+	private ObjectMapper objectMapper;
+
+	private StockTableVersion stockTableVersion;
+
+	private StockProperties stockProperties;
+
+	private StockListSnapshot stockListSnapshot;
+
+	private StockResponse tsla;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		MockitoAnnotations.openMocks(this);
+
+		tsla = StockResponse.builder().id(5L).name("Tesla Inc").currentPrice(Price.parse("793.53"))
+				.lastUpdate(LocalDateTime.of(2021, 2, 1, 10, 0)).build();
+		doAnswer(invocation -> {
+			((Consumer<StockResponse>) invocation.getArgument(0)).accept(tsla);
+			return null;
+		}).when(stockService).streamStocks(any());
+
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		stockTableVersion = new StockTableVersion();
+		stockProperties = new StockProperties();
+		stockProperties.getHttp().setListSnapshotInterval(Duration.ZERO);
+		stockListSnapshot = new StockListSnapshot(stockService, objectMapper, stockTableVersion, stockProperties);
+	}
+
+	@Test
+	public void getBuildsOncePerVersion() throws Exception {
+		StockListSnapshot.Snapshot snapshot = stockListSnapshot.get();
+
+		assertSame(snapshot, stockListSnapshot.get());
+		assertEquals(stockTableVersion.getVersion(), snapshot.getVersion());
+		verify(stockService, times(1)).streamStocks(any());
+
+		List<StockResponse> stockResponses = objectMapper.readValue(snapshot.getJson(),
+				objectMapper.getTypeFactory().constructCollectionType(List.class, StockResponse.class));
+		assertEquals(1, stockResponses.size());
+		assertEquals(tsla.getCurrentPrice(), stockResponses.get(0).getCurrentPrice());
+	}
+
+	@Test
+	public void getRebuildsAfterChange() throws Exception {
+		StockListSnapshot.Snapshot snapshot = stockListSnapshot.get();
+
+		stockTableVersion.onStockChanged(new StockChangedEvent(tsla));
+
+		assertNotSame(snapshot, stockListSnapshot.get());
+		verify(stockService, times(2)).streamStocks(any());
+	}
+
+	@Test
+	public void getKeepsStaleSnapshotWithinInterval() throws Exception {
+		stockProperties.getHttp().setListSnapshotInterval(Duration.ofHours(1));
+		stockListSnapshot = new StockListSnapshot(stockService, objectMapper, stockTableVersion, stockProperties);
+		StockListSnapshot.Snapshot snapshot = stockListSnapshot.get();
+
+		stockTableVersion.onStockChanged(new StockChangedEvent(tsla));
+
+		assertSame(snapshot, stockListSnapshot.get());
+		verify(stockService, times(1)).streamStocks(any());
+	}
+
+	@Test
+	public void gzipHasSameContent() throws Exception {
+		StockListSnapshot.Snapshot snapshot = stockListSnapshot.get();
+
+		try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(snapshot.getGzip()))) {
+			assertArrayEquals(snapshot.getJson(), inputStream.readAllBytes());
+		}
+	}
+}
@@ -1,21 +1,27 @@
 package com.stockapi.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -25,10 +31,14 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stockapi.exception.StockAlreadyExistsException;
 import com.stockapi.exception.StockNotFoundException;
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.model.Price;
 import com.stockapi.model.PriceRequest;
 import com.stockapi.model.StockRequest;
+import com.stockapi.model.StockResponse;
 
 /**
  * REST Controller integration tests
@@ -41,6 +51,8 @@ import com.stockapi.model.StockRequest;
 @WebAppConfiguration
 public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 
+	private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
 	@Autowired
 	private WebApplicationContext webApplicationContext;
 	
@@ -59,6 +71,14 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 				.andExpect(jsonPath("$", hasSize(5)));
 	}
 	
+	@Test
+	public void getStockListPage() throws Exception {
+		mockMvc.perform(get("/stocks/list?name=TESLA&sort=currentPrice,desc&size=2"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("Tesla Inc")))
+				.andExpect(content().string(not(containsString("GameStop Corp."))));
+	}
+	
 	@Test
 	public void getStock() throws Exception {
 		mockMvc.perform(get("/api/stocks/5")
@@ -68,6 +88,56 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 				.andExpect(jsonPath("$.currentPrice").value(new BigDecimal("793.53")));
 	}
 	
+	@Test
+	public void getStockAsCbor() throws Exception {
+		byte[] content = mockMvc.perform(get("/api/stocks/5")
+				.accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn()
+				.getResponse()
+				.getContentAsByteArray();
+		StockResponse stockResponse = Jackson2ObjectMapperBuilder.cbor().build().readValue(content, StockResponse.class);
+		
+		assertThat(stockResponse.getName()).isEqualTo("Tesla Inc");
+		assertThat(stockResponse.getLastUpdate()).isNotNull();
+	}
+	
+	@Test
+	@DirtiesContext
+	public void updateStockWithSmileBody() throws Exception {
+		ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("14.35"))
+				.build();
+		byte[] content = mockMvc.perform(put("/api/stocks/3")
+				.contentType(SMILE)
+				.accept(SMILE)
+				.content(smileMapper.writeValueAsBytes(priceRequest)))
+				.andExpect(status().isNoContent())
+				.andReturn()
+				.getResponse()
+				.getContentAsByteArray();
+		
+		assertThat(smileMapper.readValue(content, StockResponse.class).getCurrentPrice()).isEqualTo(priceRequest.getCurrentPrice());
+	}
+	
+	@Test
+	public void getStockNotModified() throws Exception {
+		String eTag = mockMvc.perform(get("/api/stocks/4")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		
+		mockMvc.perform(get("/api/stocks/4")
+				.header(HttpHeaders.IF_NONE_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+	}
+	
 	@Test
 	public void getStockWithInvalidId() throws Exception {
 		Exception exception = mockMvc.perform(get("/api/stocks/8")
@@ -95,19 +165,19 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 	public void createStock() throws Exception {
 		StockRequest stockRequest = StockRequest.builder()
 				.name("Apple Inc")
-				.currentPrice(new BigDecimal("131.96"))
+				.currentPrice(Price.parse("131.96"))
 				.build();
 		mockMvc.perform(post("/api/stocks").contentType(MediaType.APPLICATION_JSON).content(asJsonString(stockRequest)))
 				.andExpect(status().isCreated())
 				.andExpect(jsonPath("$.name").value(stockRequest.getName()))
-				.andExpect(jsonPath("$.currentPrice").value(stockRequest.getCurrentPrice()));
+				.andExpect(jsonPath("$.currentPrice").value(stockRequest.getCurrentPrice().toBigDecimal()));
 	}
 	
 	@Test
 	public void createStockAlreadyExists() throws Exception {
 		StockRequest stockRequest = StockRequest.builder()
 				.name("Tesla Inc")
-				.currentPrice(new BigDecimal("857.93"))
+				.currentPrice(Price.parse("857.93"))
 				.build();
 		Exception exception = mockMvc.perform(post("/api/stocks").contentType(MediaType.APPLICATION_JSON).content(asJsonString(stockRequest)))
 				.andExpect(status().isBadRequest())
@@ -121,7 +191,7 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 	public void createStockWithNullName() throws Exception {
 		StockRequest stockRequest = StockRequest.builder()
 				.name(null)
-				.currentPrice(new BigDecimal("857.93"))
+				.currentPrice(Price.parse("857.93"))
 				.build();
 		Exception exception = mockMvc.perform(post("/api/stocks")
 				.contentType(MediaType.APPLICATION_JSON)
@@ -137,7 +207,7 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 	public void createStockWithEmptyName() throws Exception {
 		StockRequest stockRequest = StockRequest.builder()
 				.name("")
-				.currentPrice(new BigDecimal("857.93"))
+				.currentPrice(Price.parse("857.93"))
 				.build();
 		Exception exception = mockMvc.perform(post("/api/stocks").contentType(MediaType.APPLICATION_JSON).content(asJsonString(stockRequest)))
 				.andExpect(status().isBadRequest())
@@ -167,7 +237,7 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 	public void createStockWithZeroPrice() throws Exception {
 		StockRequest stockRequest = StockRequest.builder()
 				.name("Apple Inc")
-				.currentPrice(new BigDecimal("0.00"))
+				.currentPrice(Price.parse("0.00"))
 				.build();
 		Exception exception = mockMvc.perform(post("/api/stocks")
 				.contentType(MediaType.APPLICATION_JSON)
@@ -182,20 +252,57 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 	@Test
 	public void updateStock() throws Exception {
 		PriceRequest priceRequest = PriceRequest.builder()
-				.currentPrice(new BigDecimal("450.75"))
+				.currentPrice(Price.parse("450.75"))
 				.build();
 		mockMvc.perform(put("/api/stocks/1")
 				.contentType(MediaType.APPLICATION_JSON)
 				.content(asJsonString(priceRequest)))
 				.andExpect(status().isNoContent())
 				.andExpect(jsonPath("$.id").value(1))
-				.andExpect(jsonPath("$.currentPrice").value(priceRequest.getCurrentPrice()));
+				.andExpect(jsonPath("$.currentPrice").value(priceRequest.getCurrentPrice().toBigDecimal()));
+	}
+	
+	@Test
+	@DirtiesContext
+	public void updateStockWithETagOfRead() throws Exception {
+		String eTag = mockMvc.perform(get("/api/stocks/3")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("14.25"))
+				.build();
+		
+		mockMvc.perform(put("/api/stocks/3")
+				.header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(priceRequest)))
+				.andExpect(status().isNoContent())
+				.andExpect(jsonPath("$.currentPrice").value(priceRequest.getCurrentPrice().toBigDecimal()));
+	}
+	
+	@Test
+	public void updateStockWithStaleETag() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("14.25"))
+				.build();
+		Exception exception = mockMvc.perform(put("/api/stocks/3")
+				.header(HttpHeaders.IF_MATCH, "\"99\"")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(priceRequest)))
+				.andExpect(status().isPreconditionFailed())
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(StockPreconditionFailedException.class);
 	}
 	
 	@Test
 	public void updateStockWithInvalidId() throws Exception {
 		PriceRequest priceRequest = PriceRequest.builder()
-				.currentPrice(new BigDecimal("450.75"))
+				.currentPrice(Price.parse("450.75"))
 				.build();
 		Exception exception = mockMvc.perform(put("/api/stocks/8")
 				.contentType(MediaType.APPLICATION_JSON)
@@ -210,7 +317,7 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 	@Test
 	public void updateStockWithInvalidArgument() throws Exception {
 		PriceRequest priceRequest = PriceRequest.builder()
-				.currentPrice(new BigDecimal("450.75"))
+				.currentPrice(Price.parse("450.75"))
 				.build();
 		Exception exception = mockMvc.perform(get("/api/stocks/xyz")
 				.contentType(MediaType.APPLICATION_JSON)
@@ -240,7 +347,7 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 	@Test
 	public void updateStockWithZeroPrice() throws Exception {
 		PriceRequest priceRequest = PriceRequest.builder()
-				.currentPrice(new BigDecimal("0.00"))
+				.currentPrice(Price.parse("0.00"))
 				.build();
 		Exception exception = mockMvc.perform(put("/api/stocks/1").contentType(MediaType.APPLICATION_JSON).content(asJsonString(priceRequest)))
 				.andExpect(status().isBadRequest())
@@ -249,4 +356,88 @@ public class StockControllerIntegrationTest extends AbstractRestControllerTest {
 		
 		assertThat(exception).isExactlyInstanceOf(MethodArgumentNotValidException.class);
 	}
+	
+	@Test
+	public void updateStockWithTooManyFractionDigits() throws Exception {
+		Exception exception = mockMvc.perform(put("/api/stocks/1")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"currentPrice\":450.755}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errorMessage[0]").value("Illegal format for price!"))
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(MethodArgumentNotValidException.class);
+	}
+	
+	@Test
+	public void updateStocksWithTooManyFractionDigits() throws Exception {
+		mockMvc.perform(put("/api/stocks/prices")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"id\":8,\"currentPrice\":15.45},{\"id\":3,\"currentPrice\":15.455}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].status").value("NOT_FOUND"))
+				.andExpect(jsonPath("$[1].status").value("BAD_REQUEST"))
+				.andExpect(jsonPath("$[1].errorMessage[0]").value("Illegal format for price!"));
+	}
+	
+	@Test
+	@DirtiesContext
+	public void updateStocks() throws Exception {
+		PriceRequest validRequest = PriceRequest.builder()
+				.id(2L)
+				.currentPrice(Price.parse("15.45"))
+				.build();
+		PriceRequest unknownRequest = PriceRequest.builder()
+				.id(8L)
+				.currentPrice(Price.parse("15.45"))
+				.build();
+		PriceRequest invalidRequest = PriceRequest.builder()
+				.id(3L)
+				.currentPrice(Price.parse("0.00"))
+				.build();
+		mockMvc.perform(put("/api/stocks/prices")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(Arrays.asList(validRequest, unknownRequest, invalidRequest))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(3)))
+				.andExpect(jsonPath("$[0].status").value("OK"))
+				.andExpect(jsonPath("$[0].stock.currentPrice").value(validRequest.getCurrentPrice().toBigDecimal()))
+				.andExpect(jsonPath("$[1].status").value("NOT_FOUND"))
+				.andExpect(jsonPath("$[2].status").value("BAD_REQUEST"));
+	}
+	
+	@Test
+	@DirtiesContext
+	public void createStocks() throws Exception {
+		StockRequest validRequest = StockRequest.builder()
+				.name("Apple Inc")
+				.currentPrice(Price.parse("131.96"))
+				.build();
+		StockRequest existingRequest = StockRequest.builder()
+				.name("Tesla Inc")
+				.currentPrice(Price.parse("857.93"))
+				.build();
+		mockMvc.perform(post("/api/stocks/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(Arrays.asList(validRequest, existingRequest))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].status").value("CREATED"))
+				.andExpect(jsonPath("$[0].stock.name").value(validRequest.getName()))
+				.andExpect(jsonPath("$[1].status").value("BAD_REQUEST"));
+	}
+	
+	@Test
+	public void getRepositoryMetrics() throws Exception {
+		mockMvc.perform(get("/api/stocks")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("stock_repository_seconds_count")))
+				.andExpect(content().string(containsString("method=\"findResponsesByIdGreaterThan\"")));
+	}
 }
@@ -4,30 +4,46 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stockapi.advice.StockExceptionHandler;
+import com.stockapi.cache.StockTableVersion;
+import com.stockapi.config.StockProperties;
 import com.stockapi.exception.StockAlreadyExistsException;
 import com.stockapi.exception.StockNotFoundException;
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.model.Price;
 import com.stockapi.model.PriceRequest;
 import com.stockapi.model.StockRequest;
 import com.stockapi.model.StockResponse;
@@ -47,6 +63,15 @@ public class StockControllerUnitTest extends AbstractRestControllerTest {
 	@Mock
 	private StockService stockService;
 	
+	@Spy
+	private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	
+	@Spy
+	private StockTableVersion stockTableVersion = new StockTableVersion();
+	
+	@Spy
+	private StockProperties stockProperties = new StockProperties();
+	
 	private MockMvc mockMvc;
 	
 	private StockResponse gme, amc, bb, nok, tsla, appl;
@@ -56,23 +81,23 @@ public class StockControllerUnitTest extends AbstractRestControllerTest {
 		MockitoAnnotations.openMocks(this);
 		mockMvc = MockMvcBuilders.standaloneSetup(stockController).setControllerAdvice(new StockExceptionHandler()).build();
 		
-		gme = StockResponse.builder().name("GameStop Corp.").currentPrice(new BigDecimal("325.00"))
+		gme = StockResponse.builder().name("GameStop Corp.").currentPrice(Price.parse("325.00"))
 				.lastUpdate(LocalDateTime.now()).build();
-		amc = StockResponse.builder().name("AMC Entertainment Holdings Inc").currentPrice(new BigDecimal("13.26"))
+		amc = StockResponse.builder().name("AMC Entertainment Holdings Inc").currentPrice(Price.parse("13.26"))
 				.lastUpdate(LocalDateTime.now()).build();
-		bb = StockResponse.builder().name("BlackBerry Ltd").currentPrice(new BigDecimal("14.10"))
+		bb = StockResponse.builder().name("BlackBerry Ltd").currentPrice(Price.parse("14.10"))
 				.lastUpdate(LocalDateTime.now()).build();
-		nok = StockResponse.builder().name("Nokia Oyj").currentPrice(new BigDecimal("4.56"))
+		nok = StockResponse.builder().name("Nokia Oyj").currentPrice(Price.parse("4.56"))
 				.lastUpdate(LocalDateTime.now()).build();
-		tsla = StockResponse.builder().name("Tesla Inc").currentPrice(new BigDecimal("793.53"))
+		tsla = StockResponse.builder().name("Tesla Inc").currentPrice(Price.parse("793.53"))
 				.lastUpdate(LocalDateTime.now()).build();
-		appl = StockResponse.builder().name("Apple Inc").currentPrice(new BigDecimal("131.96"))
+		appl = StockResponse.builder().name("Apple Inc").currentPrice(Price.parse("131.96"))
 				.lastUpdate(LocalDateTime.now()).build();
 	}
 	
 	@Test
 	public void getStocks() throws Exception {
-		when(stockService.getStocks()).thenReturn(Arrays.asList(gme, amc, bb, nok, tsla));
+		when(stockService.getStocks(anyLong(), any())).thenReturn(Arrays.asList(gme, amc, bb, nok, tsla));
 		
 		mockMvc.perform(get("/api/stocks")
 				.contentType(MediaType.APPLICATION_JSON))
@@ -80,6 +105,80 @@ public class StockControllerUnitTest extends AbstractRestControllerTest {
 				.andExpect(jsonPath("$", hasSize(5)));
 	}
 	
+	@Test
+	public void getStocksAfterId() throws Exception {
+		when(stockService.getStocks(eq(3L), eq(2))).thenReturn(Arrays.asList(nok, tsla));
+		
+		mockMvc.perform(get("/api/stocks?after=3&limit=2")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[1].name").value(tsla.getName()));
+	}
+	
+	@Test
+	public void searchStocks() throws Exception {
+		when(stockService.searchStocks(eq("inc"), eq(2))).thenReturn(Arrays.asList(tsla, appl));
+		
+		mockMvc.perform(get("/api/stocks/search?q=inc&limit=2")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].name").value(tsla.getName()));
+	}
+	
+	@Test
+	public void searchStocksWithoutText() throws Exception {
+		mockMvc.perform(get("/api/stocks/search")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+		verify(stockService, never()).searchStocks(any(), any());
+	}
+	
+	@Test
+	public void getStocksNotModified() throws Exception {
+		String eTag = "\"" + stockTableVersion.getVersion() + "\"";
+		
+		mockMvc.perform(get("/api/stocks")
+				.header(HttpHeaders.IF_NONE_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, eTag))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=1, must-revalidate"));
+		verify(stockService, never()).getStocks(any(), any());
+	}
+	
+	@Test
+	public void getStocksModified() throws Exception {
+		String eTag = "\"" + stockTableVersion.getVersion() + "\"";
+		stockTableVersion.onStockChanged(null);
+		
+		mockMvc.perform(get("/api/stocks")
+				.header(HttpHeaders.IF_NONE_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getAllStocks() throws Exception {
+		doAnswer(invocation -> {
+			Consumer<StockResponse> consumer = invocation.getArgument(0);
+			Arrays.asList(gme, amc, bb, nok, tsla).forEach(consumer);
+			return null;
+		}).when(stockService).streamStocks(any(Consumer.class));
+		
+		MvcResult mvcResult = mockMvc.perform(get("/api/stocks/all")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(5)))
+				.andExpect(jsonPath("$[4].name").value(tsla.getName()));
+	}
+	
 	@Test
 	public void getStock() throws Exception {
 		when(stockService.getStock(anyLong())).thenReturn(tsla);
@@ -88,7 +187,7 @@ public class StockControllerUnitTest extends AbstractRestControllerTest {
 				.contentType(MediaType.APPLICATION_JSON))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$.name").value(tsla.getName()))
-				.andExpect(jsonPath("$.currentPrice").value(tsla.getCurrentPrice()));
+				.andExpect(jsonPath("$.currentPrice").value(tsla.getCurrentPrice().toBigDecimal()));
 	}
 	
 	@Test
@@ -129,7 +228,7 @@ public class StockControllerUnitTest extends AbstractRestControllerTest {
 		mockMvc.perform(post("/api/stocks").contentType(MediaType.APPLICATION_JSON).content(asJsonString(stockRequest)))
 				.andExpect(status().isCreated())
 				.andExpect(jsonPath("$.name").value(appl.getName()))
-				.andExpect(jsonPath("$.currentPrice").value(appl.getCurrentPrice()));
+				.andExpect(jsonPath("$.currentPrice").value(appl.getCurrentPrice().toBigDecimal()));
 	}
 	
 	@Test
@@ -152,17 +251,64 @@ public class StockControllerUnitTest extends AbstractRestControllerTest {
 	@Test
 	public void updateStock() throws Exception {
 		PriceRequest priceRequest = PriceRequest.builder()
-				.currentPrice(new BigDecimal("450.75"))
+				.currentPrice(Price.parse("450.75"))
 				.build();
 		
-		when(stockService.updateStock(anyLong(), any(PriceRequest.class))).thenReturn(tsla);
+		when(stockService.updateStock(anyLong(), any(PriceRequest.class), any())).thenReturn(tsla);
 		
 		mockMvc.perform(put("/api/stocks/5")
 				.contentType(MediaType.APPLICATION_JSON)
 				.content(asJsonString(priceRequest)))
 				.andExpect(status().isNoContent())
 				.andExpect(jsonPath("$.id").value(tsla.getId()))
-				.andExpect(jsonPath("$.currentPrice").value(tsla.getCurrentPrice()));
+				.andExpect(jsonPath("$.currentPrice").value(tsla.getCurrentPrice().toBigDecimal()));
+	}
+	
+	@Test
+	public void getStockNotModified() throws Exception {
+		tsla.setVersion(4L);
+		when(stockService.getStock(anyLong())).thenReturn(tsla);
+		
+		mockMvc.perform(get("/api/stocks/5")
+				.header(HttpHeaders.IF_NONE_MATCH, "\"4\"")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotModified());
+	}
+	
+	@Test
+	public void updateStockWithIfMatch() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("450.75"))
+				.build();
+		tsla.setVersion(4L);
+		
+		when(stockService.updateStock(anyLong(), any(PriceRequest.class), eq(3L))).thenReturn(tsla);
+		
+		mockMvc.perform(put("/api/stocks/5")
+				.header(HttpHeaders.IF_MATCH, "\"3\"")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(priceRequest)))
+				.andExpect(status().isNoContent())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+	}
+	
+	@Test
+	public void updateStockWithStaleIfMatch() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("450.75"))
+				.build();
+		
+		when(stockService.updateStock(anyLong(), any(PriceRequest.class), eq(3L))).thenThrow(StockPreconditionFailedException.class);
+		
+		Exception exception = mockMvc.perform(put("/api/stocks/5")
+				.header(HttpHeaders.IF_MATCH, "\"3\"")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(priceRequest)))
+				.andExpect(status().isPreconditionFailed())
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(StockPreconditionFailedException.class);
 	}
 	
 	@Test
@@ -171,7 +317,7 @@ public class StockControllerUnitTest extends AbstractRestControllerTest {
 				.currentPrice(tsla.getCurrentPrice())
 				.build();
 		
-		when(stockService.updateStock(anyLong(), any(PriceRequest.class))).thenThrow(StockNotFoundException.class);
+		when(stockService.updateStock(anyLong(), any(PriceRequest.class), any())).thenThrow(StockNotFoundException.class);
 		
 		Exception exception = mockMvc.perform(put("/api/stocks/8")
 				.contentType(MediaType.APPLICATION_JSON)
@@ -189,7 +335,7 @@ public class StockControllerUnitTest extends AbstractRestControllerTest {
 				.currentPrice(tsla.getCurrentPrice())
 				.build();
 		
-		when(stockService.updateStock(anyLong(), any(PriceRequest.class))).thenThrow(MethodArgumentTypeMismatchException.class);
+		when(stockService.updateStock(anyLong(), any(PriceRequest.class), any())).thenThrow(MethodArgumentTypeMismatchException.class);
 		
 		Exception exception = mockMvc.perform(get("/api/stocks/xyz")
 				.contentType(MediaType.APPLICATION_JSON)
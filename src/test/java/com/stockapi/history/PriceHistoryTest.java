@@ -0,0 +1,158 @@
+package com.stockapi.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.exception.StockBadRequestException;
+import com.stockapi.model.OhlcBar;
+import com.stockapi.model.Price;
+
+/**
+ * Price history unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class PriceHistoryTest {
+
+	private PriceHistory priceHistory;
+
+	private LocalDateTime start;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		priceHistory = new PriceHistory(new StockProperties());
+		start = LocalDateTime.of(2021, 2, 1, 10, 0);
+	}
+
+	@Test
+	public void getBars() throws Exception {
+		priceHistory.append(5L, Price.parse("793.53"), start);
+		priceHistory.append(5L, Price.parse("801.10"), start.plusSeconds(20));
+		priceHistory.append(5L, Price.parse("790.00"), start.plusSeconds(40));
+		priceHistory.append(5L, Price.parse("795.25"), start.plusMinutes(2));
+
+		List<OhlcBar> bars = priceHistory.getBars(5L, start, start.plusMinutes(5), Duration.ofMinutes(1));
+
+		assertEquals(2, bars.size());
+		assertEquals(start, bars.get(0).getStart());
+		assertEquals(Price.parse("793.53"), bars.get(0).getOpen());
+		assertEquals(Price.parse("801.10"), bars.get(0).getHigh());
+		assertEquals(Price.parse("790.00"), bars.get(0).getLow());
+		assertEquals(Price.parse("790.00"), bars.get(0).getClose());
+		assertEquals(3, bars.get(0).getCount());
+		assertEquals(start.plusMinutes(2), bars.get(1).getStart());
+		assertEquals(1, bars.get(1).getCount());
+	}
+
+	@Test
+	public void getBarsWithinRange() throws Exception {
+		for (int i = 0; i < 10; i++)
+			priceHistory.append(5L, Price.ofCents((100 + i) * 100L), start.plusMinutes(i));
+
+		List<OhlcBar> bars = priceHistory.getBars(5L, start.plusMinutes(3), start.plusMinutes(6), Duration.ofMinutes(1));
+
+		assertEquals(3, bars.size());
+		assertEquals(Price.parse("103.00"), bars.get(0).getOpen());
+		assertEquals(Price.parse("105.00"), bars.get(2).getClose());
+	}
+
+	@Test
+	public void getBarsOfUnknownStock() throws Exception {
+		assertTrue(priceHistory.getBars(8L, start, start.plusDays(1), Duration.ofMinutes(1)).isEmpty());
+	}
+
+	@Test
+	public void getBarsWithZeroInterval() throws Exception {
+		assertThrows(StockBadRequestException.class, () -> priceHistory.getBars(5L, start, start.plusDays(1), Duration.ZERO));
+	}
+
+	@Test
+	public void getBarsWithIntervalBelowResolution() throws Exception {
+		assertThrows(StockBadRequestException.class,
+				() -> priceHistory.getBars(5L, start, start.plusDays(1), Duration.ofMillis(1500)));
+	}
+
+	@Test
+	public void getBarsWithTooManyBars() throws Exception {
+		assertThrows(StockBadRequestException.class,
+				() -> priceHistory.getBars(5L, start, start.plusDays(1), Duration.ofSeconds(1)));
+	}
+
+	@Test
+	public void appendFoldsTicksIntoOpenBar() throws Exception {
+		for (int i = 0; i < 1000; i++)
+			priceHistory.append(5L, Price.ofCents(10_000 + i), start.plusNanos(i * 500_000L));
+
+		List<OhlcBar> bars = priceHistory.getBars(5L, start, start.plusMinutes(1), Duration.ofSeconds(1));
+
+		assertEquals(1, bars.size());
+		assertEquals(1000, bars.get(0).getCount());
+		assertEquals(Price.parse("100.00"), bars.get(0).getOpen());
+		assertEquals(Price.parse("109.99"), bars.get(0).getClose());
+	}
+
+	@Test
+	public void appendBeyondMaximumDropsOldestBars() throws Exception {
+		StockProperties stockProperties = new StockProperties();
+		stockProperties.getHistory().setMaxBarsPerStock(100);
+		priceHistory = new PriceHistory(stockProperties);
+
+		for (int i = 0; i < 102; i++)
+			priceHistory.append(5L, Price.ofCents((100 + i) * 100L), start.plusMinutes(i));
+
+		List<OhlcBar> bars = priceHistory.getBars(5L, start, start.plusDays(1), Duration.ofHours(1));
+
+		assertEquals(52, bars.stream().mapToInt(OhlcBar::getCount).sum());
+		assertEquals(Price.parse("150.00"), bars.get(0).getOpen());
+		assertEquals(Price.parse("201.00"), bars.get(bars.size() - 1).getClose());
+	}
+
+	@Test
+	public void appendBeyondGlobalMaximumDropsOldestBars() throws Exception {
+		StockProperties stockProperties = new StockProperties();
+		stockProperties.getHistory().setMaxBars(150);
+		priceHistory = new PriceHistory(stockProperties);
+
+		for (int i = 0; i < 101; i++) {
+			priceHistory.append(5L, Price.ofCents((100 + i) * 100L), start.plusMinutes(i));
+			priceHistory.append(8L, Price.ofCents((100 + i) * 100L), start.plusMinutes(i));
+		}
+
+		List<OhlcBar> bars = priceHistory.getBars(5L, start, start.plusDays(1), Duration.ofHours(1));
+
+		assertTrue(bars.stream().mapToInt(OhlcBar::getCount).sum() < 101);
+		assertEquals(Price.parse("200.00"), bars.get(bars.size() - 1).getClose());
+	}
+
+	@Test
+	public void appendWithoutBudgetKeepsOpenBarUntilBarsAreGivenBack() throws Exception {
+		StockProperties stockProperties = new StockProperties();
+		stockProperties.getHistory().setMaxBars(100);
+		priceHistory = new PriceHistory(stockProperties);
+
+		for (int i = 0; i < 3; i++) {
+			priceHistory.append(5L, Price.ofCents((100 + i) * 100L), start.plusMinutes(i));
+			priceHistory.append(8L, Price.ofCents((100 + i) * 100L), start.plusMinutes(i));
+		}
+
+		assertEquals(1, priceHistory.getBars(8L, start, start.plusDays(1), Duration.ofMinutes(1)).size());
+
+		for (int i = 3; i < 66; i++)
+			priceHistory.append(5L, Price.ofCents((100 + i) * 100L), start.plusMinutes(i));
+		for (int i = 3; i < 6; i++)
+			priceHistory.append(8L, Price.ofCents((100 + i) * 100L), start.plusMinutes(i));
+
+		assertEquals(4, priceHistory.getBars(8L, start, start.plusDays(1), Duration.ofMinutes(1)).size());
+		assertEquals(18, priceHistory.getBars(5L, start, start.plusDays(1), Duration.ofMinutes(1)).size());
+	}
+}
@@ -0,0 +1,95 @@
+package com.stockapi.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+/**
+ * Price unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class PriceTest {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	@Test
+	public void parse() throws Exception {
+		assertEquals(32500, Price.parse("325").getCents());
+		assertEquals(32550, Price.parse("325.5").getCents());
+		assertEquals(32555, Price.parse(" 325.550 ").getCents());
+		assertEquals(5, Price.parse(".05").getCents());
+		assertEquals(-5, Price.parse("-0.05").getCents());
+		assertEquals(32500, Price.parse("3.25E2").getCents());
+	}
+
+	@Test
+	public void parseIllegalFormat() throws Exception {
+		assertThrows(NumberFormatException.class, () -> Price.parse("325.555"));
+		assertThrows(NumberFormatException.class, () -> Price.parse("12a"));
+		assertThrows(NumberFormatException.class, () -> Price.parse("."));
+		assertThrows(NumberFormatException.class, () -> Price.parse(""));
+		assertThrows(NumberFormatException.class, () -> Price.parse("12345678901234567"));
+	}
+
+	@Test
+	public void parseLenient() throws Exception {
+		Price price = Price.parseLenient("325.555");
+
+		assertEquals(3, price.getFractionDigits());
+		assertEquals(3, price.getIntegerDigits());
+		assertTrue(price.isPositive());
+		assertEquals(new BigDecimal("325.555"), price.toBigDecimal());
+		assertThrows(IllegalStateException.class, price::getCents);
+		assertEquals(17, Price.parseLenient("12345678901234567").getIntegerDigits());
+		assertEquals(Price.ofCents(32550), Price.parseLenient("325.50"));
+		assertThrows(NumberFormatException.class, () -> Price.parseLenient("12a"));
+	}
+
+	@Test
+	public void convertToAndFromBigDecimal() throws Exception {
+		assertEquals(new BigDecimal("793.53"), Price.ofCents(79353).toBigDecimal());
+		assertEquals(Price.ofCents(1410), Price.of(new BigDecimal("14.1")));
+		assertThrows(ArithmeticException.class, () -> Price.of(new BigDecimal("14.105")));
+	}
+
+	@Test
+	public void format() throws Exception {
+		assertEquals("325.00", Price.ofCents(32500).toString());
+		assertEquals("0.05", Price.ofCents(5).toString());
+		assertEquals("-0.05", Price.ofCents(-5).toString());
+		assertEquals("-1.05", Price.ofCents(-105).toString());
+		assertEquals(3, Price.ofCents(32500).getIntegerDigits());
+		assertEquals(1, Price.ofCents(32550).getFractionDigits());
+		assertTrue(Price.ofCents(1).compareTo(Price.ZERO) > 0);
+	}
+
+	@Test
+	public void writeJson() throws Exception {
+		StockResponse stockResponse = StockResponse.builder().id(5L).name("Tesla Inc").currentPrice(Price.ofCents(79350))
+				.lastUpdate(LocalDateTime.of(2021, 2, 1, 10, 0)).build();
+
+		String json = objectMapper.writeValueAsString(stockResponse);
+
+		assertTrue(json.contains("\"currentPrice\":793.50"), json);
+	}
+
+	@Test
+	public void readJson() throws Exception {
+		assertEquals(Price.ofCents(45075), objectMapper.readValue("{\"currentPrice\":450.75}", PriceRequest.class).getCurrentPrice());
+		assertEquals(Price.ofCents(45000), objectMapper.readValue("{\"currentPrice\":450}", PriceRequest.class).getCurrentPrice());
+		assertEquals(Price.ofCents(45075), objectMapper.readValue("{\"currentPrice\":\"450.75\"}", PriceRequest.class).getCurrentPrice());
+		assertEquals(3, objectMapper.readValue("{\"currentPrice\":450.755}", PriceRequest.class).getCurrentPrice().getFractionDigits());
+		assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("{\"currentPrice\":\"450.7x\"}", PriceRequest.class));
+	}
+}
@@ -0,0 +1,111 @@
+package com.stockapi.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import com.stockapi.domain.Stock;
+import com.stockapi.model.Price;
+import com.stockapi.model.PriceRequest;
+import com.stockapi.model.StockResponse;
+import com.stockapi.service.StockService;
+
+/**
+ * Second-level and query cache integration tests
+ *
+ * @author gorkemdemiray
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@WebAppConfiguration
+public class StockRepositoryCacheTest {
+
+	@Autowired
+	private StockRepository stockRepository;
+
+	@Autowired
+	private StockService stockService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private Long nokiaId;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		nokiaId = stockRepository.findByNameIn(Arrays.asList("Nokia Oyj")).get(0).getId();
+		entityManagerFactory.getCache().evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	public void findByIdReadsFromEntityCache() throws Exception {
+		Stock first = stockRepository.findById(nokiaId).get();
+		Stock second = stockRepository.findById(nokiaId).get();
+
+		assertEquals(first.getName(), second.getName());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getSecondLevelCacheHitCount());
+	}
+
+	@Test
+	public void findResponsesByIdGreaterThanReadsFromQueryCache() throws Exception {
+		stockRepository.findResponsesByIdGreaterThan(0L, PageRequest.of(0, 10));
+		List<StockResponse> stocks = stockRepository.findResponsesByIdGreaterThan(0L, PageRequest.of(0, 10));
+
+		assertEquals(nokiaId, find(stocks, nokiaId).getId());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getQueryCacheHitCount());
+	}
+
+	@Test
+	public void findResponsesReadsPageAndCountFromQueryCache() throws Exception {
+		stockRepository.findResponses(PageRequest.of(0, 2, Sort.by("name", "id")));
+		Page<StockResponse> page = stockRepository.findResponses(PageRequest.of(0, 2, Sort.by("name", "id")));
+
+		assertEquals(2, page.getContent().size());
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(2, statistics.getQueryCacheHitCount());
+	}
+
+	@Test
+	@DirtiesContext
+	public void updateStockRefreshesCaches() throws Exception {
+		stockRepository.findById(nokiaId);
+		stockRepository.findResponsesByIdGreaterThan(0L, PageRequest.of(0, 10));
+
+		stockService.updateStock(nokiaId, PriceRequest.builder().currentPrice(Price.parse("5.10")).build());
+		statistics.clear();
+
+		assertEquals(Price.parse("5.10"), stockRepository.findById(nokiaId).get().getCurrentPrice());
+		assertEquals(0, statistics.getPrepareStatementCount());
+		List<StockResponse> stocks = stockRepository.findResponsesByIdGreaterThan(0L, PageRequest.of(0, 10));
+		assertEquals(Price.parse("5.10"), find(stocks, nokiaId).getCurrentPrice());
+		assertEquals(1, statistics.getQueryCacheMissCount());
+	}
+
+	private static StockResponse find(List<StockResponse> stocks, Long id) {
+		return stocks.stream().filter(stock -> stock.getId().equals(id)).findFirst().get();
+	}
+}
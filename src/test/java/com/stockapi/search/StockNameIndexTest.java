@@ -0,0 +1,101 @@
+package com.stockapi.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.stockapi.event.StockChangedEvent;
+import com.stockapi.exception.StockBadRequestException;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+import com.stockapi.repository.StockRepository;
+
+/**
+ * Stock name index unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class StockNameIndexTest {
+
+	@Mock
+	private StockRepository stockRepository;
+
+	private StockNameIndex stockNameIndex;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		MockitoAnnotations.openMocks(this);
+		when(stockRepository.findResponsesByIdGreaterThan(anyLong(), any())).thenReturn(Arrays.asList(
+				getStockResponse(1L, "GameStop Corp."),
+				getStockResponse(2L, "AMC Entertainment Holdings Inc"),
+				getStockResponse(3L, "BlackBerry Ltd"),
+				getStockResponse(4L, "Nokia Oyj"),
+				getStockResponse(5L, "Tesla Inc"),
+				getStockResponse(6L, "Apple Inc")));
+
+		stockNameIndex = new StockNameIndex(stockRepository, null);
+		stockNameIndex.load();
+	}
+
+	@Test
+	public void searchPrefix() throws Exception {
+		assertEquals(Arrays.asList(3L), stockNameIndex.search("black", 10));
+		assertEquals(Arrays.asList(2L, 6L), stockNameIndex.search("A", 2));
+	}
+
+	@Test
+	public void searchSubstringIgnoringCase() throws Exception {
+		assertEquals(Arrays.asList(2L, 5L, 6L), stockNameIndex.search(" INC ", 10));
+		assertEquals(Arrays.asList(3L), stockNameIndex.search("berry", 10));
+		assertTrue(stockNameIndex.search("microsoft", 10).isEmpty());
+	}
+
+	@Test
+	public void searchPrefixMatchesFirst() throws Exception {
+		stockNameIndex.add(7L, "Incyte Corp");
+
+		List<Long> ids = stockNameIndex.search("inc", 10);
+
+		assertEquals(Arrays.asList(7L, 2L, 5L, 6L), ids);
+		assertEquals(Arrays.asList(7L, 2L), stockNameIndex.search("inc", 2));
+	}
+
+	@Test
+	public void searchShortText() throws Exception {
+		List<Long> ids = stockNameIndex.search("ok", 10);
+
+		assertEquals(Arrays.asList(4L), ids);
+	}
+
+	@Test
+	public void searchEmptyText() throws Exception {
+		assertThrows(StockBadRequestException.class, () -> stockNameIndex.search("  ", 10));
+	}
+
+	@Test
+	public void onStockChangedAddsNewStocksOnce() throws Exception {
+		stockNameIndex.onStockChanged(new StockChangedEvent(getStockResponse(8L, "Microsoft Corp")));
+		stockNameIndex.onStockChanged(new StockChangedEvent(getStockResponse(8L, "Microsoft Corp")));
+
+		assertEquals(Arrays.asList(8L), stockNameIndex.search("soft", 10));
+		assertEquals(7, stockNameIndex.size());
+	}
+
+	private StockResponse getStockResponse(Long id, String name) {
+		return StockResponse.builder().id(id).name(name).currentPrice(Price.parse("10.00")).lastUpdate(LocalDateTime.now())
+				.build();
+	}
+}
@@ -1,31 +1,62 @@
 package com.stockapi.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.validation.Validator;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.stockapi.cache.StockCache;
+import com.stockapi.config.StockProperties;
 import com.stockapi.domain.Stock;
+import com.stockapi.event.StockChangedEvent;
 import com.stockapi.exception.StockAlreadyExistsException;
+import com.stockapi.exception.StockConflictException;
 import com.stockapi.exception.StockNotFoundException;
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.model.BatchItemResponse;
+import com.stockapi.model.Price;
 import com.stockapi.model.PriceRequest;
 import com.stockapi.model.StockRequest;
 import com.stockapi.model.StockResponse;
 import com.stockapi.repository.StockRepository;
+import com.stockapi.store.QuoteStore;
+import com.stockapi.store.StockWriteBehind;
 
 /**
  * Service unit tests
@@ -41,35 +72,146 @@ public class StockServiceTest {
 	@Mock
 	private StockRepository stockRepository;
 	
+	@Mock
+	private Validator validator;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Spy
+	private StockProperties stockProperties = new StockProperties();
+	
+	@Spy
+	private StockCache stockCache = new StockCache(new StockProperties());
+	
 	private Stock gme, amc, bb, nok, tsla, appl;
 	
 	@BeforeEach
 	public void setUp() throws Exception {
 		MockitoAnnotations.openMocks(this);
 		
-		gme = Stock.builder().id(1L).name("GameStop Corp.").currentPrice(new BigDecimal("325.00"))
+		gme = Stock.builder().id(1L).name("GameStop Corp.").currentPrice(Price.parse("325.00"))
 				.lastUpdate(LocalDateTime.now()).build();
-		amc = Stock.builder().id(2L).name("AMC Entertainment Holdings Inc").currentPrice(new BigDecimal("13.26"))
+		amc = Stock.builder().id(2L).name("AMC Entertainment Holdings Inc").currentPrice(Price.parse("13.26"))
 				.lastUpdate(LocalDateTime.now()).build();
-		bb = Stock.builder().id(3L).name("BlackBerry Ltd").currentPrice(new BigDecimal("14.10"))
+		bb = Stock.builder().id(3L).name("BlackBerry Ltd").currentPrice(Price.parse("14.10"))
 				.lastUpdate(LocalDateTime.now()).build();
-		nok = Stock.builder().id(4L).name("Nokia Oyj").currentPrice(new BigDecimal("4.56"))
+		nok = Stock.builder().id(4L).name("Nokia Oyj").currentPrice(Price.parse("4.56"))
 				.lastUpdate(LocalDateTime.now()).build();
-		tsla = Stock.builder().id(5L).name("Tesla Inc").currentPrice(new BigDecimal("793.53"))
+		tsla = Stock.builder().id(5L).name("Tesla Inc").currentPrice(Price.parse("793.53"))
 				.lastUpdate(LocalDateTime.now()).build();
-		appl = Stock.builder().name("Apple Inc").currentPrice(new BigDecimal("131.96")).lastUpdate(LocalDateTime.now())
+		appl = Stock.builder().name("Apple Inc").currentPrice(Price.parse("131.96")).lastUpdate(LocalDateTime.now())
 				.build();
 	}
 	
 	@Test
 	public void getStocks() throws Exception {
-		when(stockRepository.findAll()).thenReturn(Arrays.asList(gme, amc, bb, nok, tsla));
+		int defaultLimit = stockProperties.getPagination().getDefaultLimit();
+		when(stockRepository.findResponsesByIdGreaterThan(0L, PageRequest.of(0, defaultLimit)))
+				.thenReturn(getStockResponses(gme, amc, bb, nok, tsla));
 		
-		List<StockResponse> stockListResponse = stockService.getStocks();
+		List<StockResponse> stockListResponse = stockService.getStocks(null, null);
 		
 		assertEquals(5, stockListResponse.size());
 	}
 	
+	@Test
+	public void getStocksAfterId() throws Exception {
+		when(stockRepository.findResponsesByIdGreaterThan(3L, PageRequest.of(0, 2))).thenReturn(getStockResponses(nok, tsla));
+		
+		List<StockResponse> stockListResponse = stockService.getStocks(3L, 2);
+		
+		assertEquals(2, stockListResponse.size());
+		assertEquals(nok.getId(), stockListResponse.get(0).getId());
+	}
+	
+	@Test
+	public void getStocksWithLimitAboveMaximum() throws Exception {
+		int maxLimit = stockProperties.getPagination().getMaxLimit();
+		
+		stockService.getStocks(0L, maxLimit + 1);
+		
+		verify(stockRepository).findResponsesByIdGreaterThan(eq(0L), eq(PageRequest.of(0, maxLimit)));
+	}
+	
+	@Test
+	public void getStocksPage() throws Exception {
+		PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "currentPrice").and(Sort.by("id")));
+		when(stockRepository.findResponses(pageRequest))
+				.thenReturn(new PageImpl<>(getStockResponses(bb, amc), pageRequest, 5));
+		
+		Page<StockResponse> page = stockService.getStocks(null, PageRequest.of(1, 2, Sort.Direction.DESC, "currentPrice"));
+		
+		assertEquals(2, page.getNumberOfElements());
+		assertEquals(5, page.getTotalElements());
+		assertEquals(bb.getName(), page.getContent().get(0).getName());
+	}
+	
+	@Test
+	public void getStocksPageFilteredByName() throws Exception {
+		when(stockRepository.findResponsesByNameLike(any(), any())).thenReturn(Page.empty());
+		
+		stockService.getStocks(" 100%_Inc ", PageRequest.of(0, 20));
+		
+		verify(stockRepository).findResponsesByNameLike(eq("%100\\%\\_inc%"), eq(PageRequest.of(0, 20, Sort.by("name", "id"))));
+	}
+	
+	@Test
+	public void getStocksPageWithUnknownSortAndSizeAboveMaximum() throws Exception {
+		int maxPageSize = stockProperties.getPagination().getMaxPageSize();
+		when(stockRepository.findResponses(any())).thenReturn(Page.empty());
+		
+		stockService.getStocks("", PageRequest.of(0, maxPageSize + 1, Sort.by("version")));
+		
+		verify(stockRepository).findResponses(eq(PageRequest.of(0, maxPageSize, Sort.by("name", "id"))));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getStocksPageFromQuoteStore() throws Exception {
+		QuoteStore quoteStore = mock(QuoteStore.class);
+		doAnswer(invocation -> {
+			getStockResponses(gme, amc, bb, nok, tsla).forEach((Consumer<StockResponse>) invocation.getArgument(0));
+			return null;
+		}).when(quoteStore).forEach(any());
+		ReflectionTestUtils.setField(stockService, "quoteStore", quoteStore);
+		
+		Page<StockResponse> page = stockService.getStocks(null, PageRequest.of(1, 2, Sort.Direction.DESC, "currentPrice"));
+		
+		assertEquals(5, page.getTotalElements());
+		assertEquals(2, page.getNumberOfElements());
+		assertEquals(bb.getName(), page.getContent().get(0).getName());
+		assertEquals(amc.getName(), page.getContent().get(1).getName());
+		verify(stockRepository, never()).findResponses(any());
+		
+		page = stockService.getStocks(" INC ", PageRequest.of(0, 20));
+		
+		assertEquals(2, page.getTotalElements());
+		assertEquals(amc.getName(), page.getContent().get(0).getName());
+		assertEquals(tsla.getName(), page.getContent().get(1).getName());
+	}
+	
+	@Test
+	public void getStocksPageWithWriteBehindSortsByName() throws Exception {
+		ReflectionTestUtils.setField(stockService, "writeBehind", mock(StockWriteBehind.class));
+		when(stockRepository.findResponses(any())).thenReturn(Page.empty());
+		
+		stockService.getStocks(null, PageRequest.of(0, 20, Sort.Direction.DESC, "currentPrice"));
+		
+		verify(stockRepository).findResponses(eq(PageRequest.of(0, 20, Sort.by("name", "id"))));
+	}
+	
+	@Test
+	public void streamStocks() throws Exception {
+		when(stockRepository.streamAllResponses()).thenReturn(getStockResponses(gme, amc, bb, nok, tsla).stream());
+		
+		List<StockResponse> stockListResponse = new ArrayList<>();
+		stockService.streamStocks(stockListResponse::add);
+		
+		assertEquals(5, stockListResponse.size());
+		assertEquals(tsla.getName(), stockListResponse.get(4).getName());
+	}
+	
 	@Test
 	public void getStock() throws Exception {
 		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
@@ -81,6 +223,33 @@ public class StockServiceTest {
 		assertEquals(stockResponse.getCurrentPrice(), tsla.getCurrentPrice());
 	}
 	
+	@Test
+	public void getStockFromCache() throws Exception {
+		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
+		
+		stockService.getStock(tsla.getId());
+		StockResponse stockResponse = stockService.getStock(tsla.getId());
+		
+		assertEquals(stockResponse.getName(), tsla.getName());
+		verify(stockRepository, times(1)).findById(tsla.getId());
+	}
+	
+	@Test
+	public void getStockAfterUpdate() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("450.75"))
+				.build();
+		
+		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
+		when(stockRepository.save(any(Stock.class))).thenReturn(tsla);
+		
+		stockService.getStock(tsla.getId());
+		stockService.updateStock(tsla.getId(), priceRequest);
+		StockResponse stockResponse = stockService.getStock(tsla.getId());
+		
+		assertEquals(priceRequest.getCurrentPrice(), stockResponse.getCurrentPrice());
+	}
+	
 	@Test
 	public void getStockWithInvalidId() throws Exception {
 		when(stockRepository.findById(anyLong())).thenThrow(StockNotFoundException.class);
@@ -102,8 +271,7 @@ public class StockServiceTest {
 				.currentPrice(appl.getCurrentPrice())
 				.build();
 
-		when(stockRepository.findByName(anyString())).thenReturn(Optional.empty());
-		when(stockRepository.save(any(Stock.class))).thenReturn(appl);
+		when(stockRepository.saveAndFlush(any(Stock.class))).thenReturn(appl);
 		
 		StockResponse stockResponse = stockService.createStock(stockRequest);
 		
@@ -119,15 +287,29 @@ public class StockServiceTest {
 				.currentPrice(tsla.getCurrentPrice())
 				.build();
 		
-		when(stockRepository.findByName(anyString())).thenReturn(Optional.ofNullable(tsla));
+		when(stockRepository.saveAndFlush(any(Stock.class))).thenThrow(DataIntegrityViolationException.class);
+		
+		assertThrows(StockAlreadyExistsException.class, () -> stockService.createStock(stockRequest));
+	}
+	
+	@Test
+	public void createStockAlreadyCached() throws Exception {
+		StockRequest stockRequest = StockRequest.builder()
+				.name(tsla.getName())
+				.currentPrice(tsla.getCurrentPrice())
+				.build();
+		
+		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
+		stockService.getStock(tsla.getId());
 		
 		assertThrows(StockAlreadyExistsException.class, () -> stockService.createStock(stockRequest));
+		verify(stockRepository, never()).saveAndFlush(any(Stock.class));
 	}
 	
 	@Test
 	public void updateStock() throws Exception {
 		PriceRequest priceRequest = PriceRequest.builder()
-				.currentPrice(new BigDecimal("450.75"))
+				.currentPrice(Price.parse("450.75"))
 				.build();
 		
 		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
@@ -138,6 +320,103 @@ public class StockServiceTest {
 		assertEquals(stockResponse.getId(), tsla.getId());
 		assertEquals(stockResponse.getName(), tsla.getName());
 		assertEquals(stockResponse.getCurrentPrice(), tsla.getCurrentPrice());
+		verify(eventPublisher).publishEvent(new StockChangedEvent(stockResponse));
+	}
+	
+	@Test
+	public void updateStockWithStaleVersion() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("450.75"))
+				.build();
+		tsla.setVersion(2L);
+		
+		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
+		
+		assertThrows(StockPreconditionFailedException.class, () -> stockService.updateStock(tsla.getId(), priceRequest, 1L));
+		verify(stockRepository, never()).save(any(Stock.class));
+	}
+	
+	@Test
+	public void updateStockWithOlderTimestamp() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("450.75"))
+				.timestamp(tsla.getLastUpdate().minusSeconds(1))
+				.build();
+		
+		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
+		
+		assertThrows(StockConflictException.class, () -> stockService.updateStock(tsla.getId(), priceRequest));
+		verify(stockRepository, never()).save(any(Stock.class));
+	}
+	
+	@Test
+	public void updateStockRetriesOnConcurrentUpdate() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("450.75"))
+				.timestamp(tsla.getLastUpdate().plusSeconds(1))
+				.build();
+		
+		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
+		when(stockRepository.save(any(Stock.class)))
+				.thenThrow(new ObjectOptimisticLockingFailureException(Stock.class, tsla.getId()))
+				.thenReturn(tsla);
+		
+		StockResponse stockResponse = stockService.updateStock(tsla.getId(), priceRequest);
+		
+		assertEquals(priceRequest.getCurrentPrice(), stockResponse.getCurrentPrice());
+		assertEquals(priceRequest.getTimestamp(), stockResponse.getLastUpdate());
+		verify(stockRepository, times(2)).findById(tsla.getId());
+	}
+	
+	@Test
+	public void updateStockWithWriteBehindHasNoVersion() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("450.75"))
+				.build();
+		tsla.setVersion(2L);
+		StockWriteBehind writeBehind = mock(StockWriteBehind.class);
+		ReflectionTestUtils.setField(stockService, "writeBehind", writeBehind);
+		
+		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
+		when(writeBehind.offer(any(StockResponse.class))).thenReturn(true);
+		
+		StockResponse stockResponse = stockService.updateStock(tsla.getId(), priceRequest);
+		
+		assertEquals(priceRequest.getCurrentPrice(), stockResponse.getCurrentPrice());
+		assertNull(stockResponse.getVersion());
+		verify(stockRepository, never()).save(any(Stock.class));
+	}
+	
+	@Test
+	public void updateStockWithVersionWhilePending() throws Exception {
+		PriceRequest priceRequest = PriceRequest.builder()
+				.currentPrice(Price.parse("450.75"))
+				.build();
+		tsla.setVersion(2L);
+		StockWriteBehind writeBehind = mock(StockWriteBehind.class);
+		ReflectionTestUtils.setField(stockService, "writeBehind", writeBehind);
+		
+		when(stockRepository.findById(anyLong())).thenReturn(Optional.ofNullable(tsla));
+		when(writeBehind.getPending(tsla.getId())).thenReturn(StockResponse.builder().id(tsla.getId())
+				.name(tsla.getName()).currentPrice(Price.parse("800.00")).lastUpdate(LocalDateTime.now()).build());
+		
+		assertThrows(StockPreconditionFailedException.class, () -> stockService.updateStock(tsla.getId(), priceRequest, 2L));
+		verify(stockRepository, never()).save(any(Stock.class));
+	}
+	
+	@Test
+	public void updateStockInQuoteStoreChecksOnlyGivenTimestamp() throws Exception {
+		StockResponse stored = StockResponse.builder().id(tsla.getId()).name(tsla.getName())
+				.currentPrice(tsla.getCurrentPrice()).lastUpdate(LocalDateTime.now().plusHours(1)).build();
+		QuoteStore quoteStore = mock(QuoteStore.class);
+		ReflectionTestUtils.setField(stockService, "quoteStore", quoteStore);
+		
+		when(quoteStore.get(tsla.getId())).thenReturn(stored);
+		when(quoteStore.update(eq(tsla.getId()), any(Price.class), any(LocalDateTime.class), any())).thenReturn(stored);
+		
+		stockService.updateStock(tsla.getId(), PriceRequest.builder().currentPrice(Price.parse("450.75")).build());
+		assertThrows(StockConflictException.class, () -> stockService.updateStock(tsla.getId(), PriceRequest.builder()
+				.currentPrice(Price.parse("450.75")).timestamp(LocalDateTime.now()).build()));
 	}
 	
 	@Test
@@ -161,4 +440,77 @@ public class StockServiceTest {
 		
 		assertThrows(NumberFormatException.class, () -> stockService.updateStock(Long.valueOf("xyz"), priceRequest));
 	}
+	
+	@Test
+	public void createStocks() throws Exception {
+		StockRequest applRequest = StockRequest.builder().name(appl.getName()).currentPrice(appl.getCurrentPrice()).build();
+		StockRequest tslaRequest = StockRequest.builder().name(tsla.getName()).currentPrice(tsla.getCurrentPrice()).build();
+		
+		when(stockRepository.findByNameIn(any())).thenReturn(Arrays.asList(tsla));
+		when(stockRepository.saveAll(any())).thenReturn(Arrays.asList(appl));
+		
+		List<BatchItemResponse> batchItemResponses = stockService.createStocks(Arrays.asList(applRequest, tslaRequest, applRequest));
+		
+		assertEquals(3, batchItemResponses.size());
+		assertEquals(HttpStatus.CREATED, batchItemResponses.get(0).getStatus());
+		assertEquals(appl.getName(), batchItemResponses.get(0).getStock().getName());
+		assertEquals(HttpStatus.BAD_REQUEST, batchItemResponses.get(1).getStatus());
+		assertEquals(HttpStatus.BAD_REQUEST, batchItemResponses.get(2).getStatus());
+	}
+	
+	@Test
+	public void createStocksCachesAfterCommit() throws Exception {
+		StockRequest applRequest = StockRequest.builder().name(appl.getName()).currentPrice(appl.getCurrentPrice()).build();
+		Stock savedAppl = Stock.builder().id(6L).name(appl.getName()).currentPrice(appl.getCurrentPrice())
+				.lastUpdate(appl.getLastUpdate()).build();
+		
+		when(stockRepository.saveAll(any())).thenReturn(Arrays.asList(savedAppl));
+		
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			stockService.createStocks(Arrays.asList(applRequest));
+			
+			assertNull(stockCache.getIfPresent(appl.getName()));
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			assertEquals(savedAppl.getId(), stockCache.getIfPresent(appl.getName()).getId());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	@Test
+	public void updateStocks() throws Exception {
+		PriceRequest gmeRequest = PriceRequest.builder().id(gme.getId()).currentPrice(Price.parse("350.25")).build();
+		PriceRequest unknownRequest = PriceRequest.builder().id(8L).currentPrice(Price.parse("1.00")).build();
+		PriceRequest nullIdRequest = PriceRequest.builder().currentPrice(Price.parse("1.00")).build();
+		
+		when(stockRepository.findAllById(any())).thenReturn(Arrays.asList(gme));
+		
+		List<BatchItemResponse> batchItemResponses = stockService.updateStocks(Arrays.asList(gmeRequest, unknownRequest, nullIdRequest));
+		
+		assertEquals(HttpStatus.OK, batchItemResponses.get(0).getStatus());
+		assertEquals(gmeRequest.getCurrentPrice(), batchItemResponses.get(0).getStock().getCurrentPrice());
+		assertEquals(HttpStatus.NOT_FOUND, batchItemResponses.get(1).getStatus());
+		assertEquals(HttpStatus.BAD_REQUEST, batchItemResponses.get(2).getStatus());
+		verify(stockRepository, times(1)).findAllById(any());
+	}
+	
+	@Test
+	public void updateStocksDiscardsOlderPendingUpdate() throws Exception {
+		PriceRequest gmeRequest = PriceRequest.builder().id(gme.getId()).currentPrice(Price.parse("350.25")).build();
+		StockWriteBehind writeBehind = mock(StockWriteBehind.class);
+		ReflectionTestUtils.setField(stockService, "writeBehind", writeBehind);
+		
+		when(stockRepository.findAllById(any())).thenReturn(Arrays.asList(gme));
+		
+		List<BatchItemResponse> batchItemResponses = stockService.updateStocks(Arrays.asList(gmeRequest));
+		
+		verify(writeBehind).discard(batchItemResponses.get(0).getStock());
+	}
+	
+	private List<StockResponse> getStockResponses(Stock... stocks) {
+		return Arrays.stream(stocks)
+				.map(stockService::getStockResponse)
+				.collect(Collectors.toList());
+	}
 }
@@ -0,0 +1,72 @@
+package com.stockapi.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.domain.Stock;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+import com.stockapi.repository.StockRepository;
+
+/**
+ * In-memory quote store unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class InMemoryQuoteStoreTest extends QuoteStoreContractTest<InMemoryQuoteStore> {
+
+	@Mock
+	private StockRepository stockRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Override
+	protected InMemoryQuoteStore createQuoteStore(List<StockResponse> stocks) throws Exception {
+		when(stockRepository.findResponsesByIdGreaterThan(anyLong(), any())).thenReturn(stocks);
+
+		InMemoryQuoteStore inMemoryQuoteStore = new InMemoryQuoteStore(stockRepository, transactionManager,
+				new StockProperties());
+		inMemoryQuoteStore.start();
+		return inMemoryQuoteStore;
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		quoteStore.stop();
+	}
+
+	@Test
+	public void snapshotWritesOnlyChangedQuotes() throws Exception {
+		Stock stock = Stock.builder().id(tsla.getId()).name(tsla.getName()).currentPrice(tsla.getCurrentPrice())
+				.lastUpdate(tsla.getLastUpdate()).build();
+		when(stockRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(stock));
+
+		quoteStore.snapshot();
+		verify(stockRepository, never()).saveAll(anyIterable());
+
+		quoteStore.update(50_000L, Price.parse("800.00"), now.plusMinutes(1));
+		quoteStore.snapshot();
+		quoteStore.snapshot();
+
+		verify(stockRepository, times(1)).saveAll(anyIterable());
+		assertEquals(Price.parse("800.00"), stock.getCurrentPrice());
+		assertEquals(now.plusMinutes(1), stock.getLastUpdate());
+	}
+}
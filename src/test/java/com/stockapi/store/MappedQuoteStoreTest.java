@@ -0,0 +1,83 @@
+package com.stockapi.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.stockapi.config.StockProperties;
+import com.stockapi.exception.StockAlreadyExistsException;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+
+/**
+ * Memory-mapped quote store unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class MappedQuoteStoreTest extends QuoteStoreContractTest<MappedQuoteStore> {
+
+	@TempDir
+	Path directory;
+
+	private StockProperties stockProperties;
+
+	@Override
+	protected MappedQuoteStore createQuoteStore(List<StockResponse> stocks) throws Exception {
+		stockProperties = new StockProperties();
+		stockProperties.getStorage().setDirectory(directory);
+
+		MappedQuoteStore mappedQuoteStore = new MappedQuoteStore(stockProperties);
+		mappedQuoteStore.start();
+		stocks.forEach(mappedQuoteStore::put);
+		return mappedQuoteStore;
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		if (quoteStore != null)
+			quoteStore.stop();
+	}
+
+	@Test
+	public void create() throws Exception {
+		StockResponse stockResponse = quoteStore.create("Nokia Oyj", Price.parse("4.56"), now);
+
+		assertEquals(50_001L, stockResponse.getId());
+		assertEquals("Nokia Oyj", quoteStore.get(50_001L).getName());
+		assertThrows(StockAlreadyExistsException.class, () -> quoteStore.create("Tesla Inc", Price.parse("1.00"), now));
+	}
+
+	@Test
+	public void headerIsNotAStock() throws Exception {
+		assertNull(quoteStore.get(0L));
+		assertNull(quoteStore.get(-1L));
+		assertNull(quoteStore.update(0L, Price.parse("1.00"), now));
+		assertNull(quoteStore.update(0L, Price.parse("1.00"), now, 0L));
+		assertThrows(IllegalArgumentException.class, () -> quoteStore.put(getStockResponse(0L, "Header", "1.00", now)));
+	}
+
+	@Test
+	public void reopenKeepsStocksAndPrices() throws Exception {
+		quoteStore.update(50_000L, Price.parse("800.00"), now.plusMinutes(1));
+		quoteStore.create("Nokia Oyj", Price.parse("4.56"), now);
+		quoteStore.stop();
+
+		quoteStore = new MappedQuoteStore(stockProperties);
+		quoteStore.start();
+
+		assertEquals(gme.getName(), quoteStore.get(1L).getName());
+		assertEquals("Nokia Oyj", quoteStore.get(50_001L).getName());
+		assertEquals(Price.parse("800.00"), quoteStore.get(50_000L).getCurrentPrice());
+		assertEquals(now.plusMinutes(1), quoteStore.get(50_000L).getLastUpdate());
+		assertEquals(50_002L, quoteStore.create("BlackBerry Ltd", Price.parse("14.10"), now).getId());
+		assertThrows(StockAlreadyExistsException.class, () -> quoteStore.create("Nokia Oyj", Price.parse("1.00"), now));
+	}
+}
@@ -0,0 +1,115 @@
+package com.stockapi.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockitoAnnotations;
+
+import com.stockapi.exception.StockPreconditionFailedException;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+
+/**
+ * Unit tests every {@link QuoteStore} has to pass, subclasses create the store
+ * holding the given stocks and stop it after each test. Mocks of the subclasses
+ * are initialized before the store is created
+ * 
+ * @author gorkemdemiray
+ * 
+ * @param <S> - type of the quote store
+ */
+public abstract class QuoteStoreContractTest<S extends QuoteStore> {
+
+	protected S quoteStore;
+
+	protected StockResponse gme, tsla;
+
+	protected LocalDateTime now;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		MockitoAnnotations.openMocks(this);
+
+		now = LocalDateTime.of(2021, 2, 1, 10, 0);
+		gme = getStockResponse(1L, "GameStop Corp.", "325.00", now);
+		tsla = getStockResponse(50_000L, "Tesla Inc", "793.53", now);
+		quoteStore = createQuoteStore(Arrays.asList(gme, tsla));
+	}
+
+	/**
+	 * 
+	 * @param stocks - stocks the store starts with ordered by id
+	 * @return started quote store
+	 * @throws Exception if the store can not be created
+	 */
+	protected abstract S createQuoteStore(List<StockResponse> stocks) throws Exception;
+
+	@Test
+	public void get() throws Exception {
+		StockResponse stockResponse = quoteStore.get(50_000L);
+
+		assertEquals(tsla.getName(), stockResponse.getName());
+		assertEquals(tsla.getCurrentPrice(), stockResponse.getCurrentPrice());
+		assertEquals(now, stockResponse.getLastUpdate());
+		assertNull(quoteStore.get(2L));
+		assertNull(quoteStore.get(1_000_000L));
+	}
+
+	@Test
+	public void update() throws Exception {
+		StockResponse stockResponse = quoteStore.update(1L, Price.parse("330.5"), now.plusMinutes(1));
+
+		assertEquals(Price.parse("330.50"), stockResponse.getCurrentPrice());
+		assertEquals(Price.parse("330.50"), quoteStore.get(1L).getCurrentPrice());
+		assertEquals(now.plusMinutes(1), quoteStore.get(1L).getLastUpdate());
+		assertEquals(Price.parse("330.50"), quoteStore.update(1L, Price.parse("1.00"), now).getCurrentPrice());
+		assertNull(quoteStore.update(2L, Price.parse("1.00"), now));
+	}
+
+	@Test
+	public void updateWithExpectedVersion() throws Exception {
+		long version = quoteStore.get(50_000L).getVersion();
+
+		StockResponse stockResponse = quoteStore.update(50_000L, Price.parse("800.00"), now.plusMinutes(1), version);
+
+		assertEquals(version + 1, stockResponse.getVersion());
+		assertEquals(version + 1, quoteStore.get(50_000L).getVersion());
+		assertThrows(StockPreconditionFailedException.class,
+				() -> quoteStore.update(50_000L, Price.parse("801.00"), now.plusMinutes(2), version));
+		assertEquals(Price.parse("800.00"), quoteStore.get(50_000L).getCurrentPrice());
+	}
+
+	@Test
+	public void getAfter() throws Exception {
+		quoteStore.put(getStockResponse(3L, "BlackBerry Ltd", "14.10", now));
+
+		List<StockResponse> page = quoteStore.getAfter(1L, 10);
+
+		assertEquals(2, page.size());
+		assertEquals(3L, page.get(0).getId());
+		assertEquals(50_000L, page.get(1).getId());
+		assertEquals(1, quoteStore.getAfter(0L, 1).size());
+	}
+
+	@Test
+	public void forEach() throws Exception {
+		List<StockResponse> stockResponses = new ArrayList<>();
+
+		quoteStore.forEach(stockResponses::add);
+
+		assertEquals(2, stockResponses.size());
+		assertEquals(1L, stockResponses.get(0).getId());
+	}
+
+	protected StockResponse getStockResponse(Long id, String name, String price, LocalDateTime lastUpdate) {
+		return StockResponse.builder().id(id).name(name).currentPrice(Price.parse(price)).lastUpdate(lastUpdate).build();
+	}
+}
@@ -0,0 +1,170 @@
+package com.stockapi.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.stockapi.cache.StockCache;
+import com.stockapi.config.StockProperties;
+import com.stockapi.domain.Stock;
+import com.stockapi.model.Price;
+import com.stockapi.model.StockResponse;
+import com.stockapi.repository.StockRepository;
+
+/**
+ * Write-behind unit tests
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+public class StockWriteBehindTest {
+
+	@Mock
+	private StockRepository stockRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private StockWriteBehind writeBehind;
+
+	private Stock tsla;
+
+	private LocalDateTime now;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		MockitoAnnotations.openMocks(this);
+
+		now = LocalDateTime.of(2021, 2, 1, 10, 0);
+		tsla = Stock.builder().id(5L).name("Tesla Inc").currentPrice(Price.parse("793.53"))
+				.lastUpdate(now).build();
+		when(stockRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(tsla));
+
+		StockProperties stockProperties = new StockProperties();
+		stockProperties.getWriteBehind().setFlushInterval(Duration.ofHours(1));
+		stockProperties.getWriteBehind().setMaxPending(1);
+		writeBehind = new StockWriteBehind(stockRepository, new StockCache(stockProperties), transactionManager, stockProperties);
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		writeBehind.shutdown();
+	}
+
+	@Test
+	public void flushWritesLastUpdate() throws Exception {
+		assertTrue(writeBehind.offer(getStockResponse("800.00", now.plusSeconds(1))));
+		assertTrue(writeBehind.offer(getStockResponse("801.00", now.plusSeconds(2))));
+
+		assertEquals(Price.parse("801.00"), writeBehind.getPending(5L).getCurrentPrice());
+
+		writeBehind.flush();
+
+		verify(stockRepository, times(1)).saveAll(anyIterable());
+		assertEquals(Price.parse("801.00"), tsla.getCurrentPrice());
+		assertEquals(now.plusSeconds(2), tsla.getLastUpdate());
+		assertNull(writeBehind.getPending(5L));
+		assertEquals(1, writeBehind.getFlushedCount());
+		assertEquals(1, writeBehind.getCoalescedCount());
+	}
+
+	@Test
+	public void offerWhenFull() throws Exception {
+		assertTrue(writeBehind.offer(getStockResponse("800.00", now.plusSeconds(1))));
+
+		assertFalse(writeBehind.offer(StockResponse.builder().id(1L).name("GameStop Corp.")
+				.currentPrice(Price.parse("325.00")).lastUpdate(now).build()));
+		assertEquals(1, writeBehind.getPendingCount());
+	}
+
+	@Test
+	public void discardKeepsNewerUpdate() throws Exception {
+		writeBehind.offer(getStockResponse("800.00", now.plusSeconds(1)));
+
+		writeBehind.discard(getStockResponse("750.00", now));
+		assertEquals(Price.parse("800.00"), writeBehind.getPending(5L).getCurrentPrice());
+
+		writeBehind.discard(getStockResponse("750.00", now.plusSeconds(2)));
+		assertNull(writeBehind.getPending(5L));
+	}
+
+	@Test
+	public void flushSkipsOlderUpdate() throws Exception {
+		writeBehind.offer(getStockResponse("700.00", now.minusSeconds(1)));
+
+		writeBehind.flush();
+
+		assertEquals(Price.parse("793.53"), tsla.getCurrentPrice());
+		assertEquals(0, writeBehind.getFlushedCount());
+	}
+
+	@Test
+	public void shutdownWaitsForRunningFlush() throws Exception {
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			reading.countDown();
+			release.await();
+			return Arrays.asList(tsla);
+		}).when(stockRepository).findAllById(anyIterable());
+		writeBehind.offer(getStockResponse("800.00", now.plusSeconds(1)));
+
+		Thread flush = new Thread(writeBehind::flush);
+		flush.start();
+		reading.await();
+		writeBehind.offer(getStockResponse("801.00", now.plusSeconds(2)));
+		Thread shutdown = new Thread(() -> {
+			try {
+				writeBehind.shutdown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		shutdown.start();
+		shutdown.join(200);
+
+		assertTrue(shutdown.isAlive());
+		release.countDown();
+		flush.join();
+		shutdown.join();
+		assertEquals(Price.parse("801.00"), tsla.getCurrentPrice());
+		assertEquals(2, writeBehind.getFlushedCount());
+	}
+
+	@Test
+	public void failedFlushKeepsUpdates() throws Exception {
+		when(stockRepository.findAllById(anyIterable())).thenThrow(new DataAccessResourceFailureException("down"));
+		writeBehind.offer(getStockResponse("800.00", now.plusSeconds(1)));
+
+		writeBehind.flush();
+
+		verify(stockRepository, never()).saveAll(anyIterable());
+		assertEquals(1, writeBehind.getPendingCount());
+		assertEquals(1, writeBehind.getFailedFlushCount());
+	}
+
+	private StockResponse getStockResponse(String price, LocalDateTime lastUpdate) {
+		return StockResponse.builder().id(5L).name("Tesla Inc").currentPrice(Price.parse(price))
+				.lastUpdate(lastUpdate).build();
+	}
+}
@@ -0,0 +1,72 @@
+package com.stockapi.reactive;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+
+import com.stockapi.reactive.domain.Stock;
+import com.stockapi.reactive.repository.StockRepository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+
+/**
+ * Runner class for the reactive Stock API
+ * 
+ * @author gorkemdemiray
+ *
+ */
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class StockReactiveApplication implements CommandLineRunner {
+
+	public static void main(String[] args) {
+		SpringApplication.run(StockReactiveApplication.class, args);
+	}
+	
+	@Autowired
+	private StockRepository stockRepository;
+
+	@Override
+	public void run(String... args) throws Exception {
+		loadStocks();
+	}
+	
+	/**
+	 * Creates the stock table from {@code schema.sql} on startup
+	 * 
+	 * @param connectionFactory - {@link ConnectionFactory}
+	 * @return {@link ConnectionFactoryInitializer}
+	 */
+	@Bean
+	public ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory) {
+		ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+		initializer.setConnectionFactory(connectionFactory);
+		initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")));
+		return initializer;
+	}
+	
+	/**
+	 * Constructs {@link Stock} entities on application startup
+	 */
+	private void loadStocks() {
+		Flux.just(
+				Stock.builder().name("GameStop Corp.").currentPrice(new BigDecimal("325.00")).lastUpdate(LocalDateTime.now()).build(),
+				Stock.builder().name("AMC Entertainment Holdings Inc").currentPrice(new BigDecimal("13.26")).lastUpdate(LocalDateTime.now()).build(),
+				Stock.builder().name("BlackBerry Ltd").currentPrice(new BigDecimal("14.10")).lastUpdate(LocalDateTime.now()).build(),
+				Stock.builder().name("Nokia Oyj").currentPrice(new BigDecimal("4.56")).lastUpdate(LocalDateTime.now()).build(),
+				Stock.builder().name("Tesla Inc").currentPrice(new BigDecimal("793.53")).lastUpdate(LocalDateTime.now()).build())
+				.concatMap(stockRepository::save)
+				.blockLast();
+	}
+
+}
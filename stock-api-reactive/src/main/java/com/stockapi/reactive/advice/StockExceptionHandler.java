@@ -0,0 +1,83 @@
+package com.stockapi.reactive.advice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+import com.stockapi.reactive.exception.StockAlreadyExistsException;
+import com.stockapi.reactive.exception.StockConflictException;
+import com.stockapi.reactive.exception.StockNotFoundException;
+
+/**
+ * Handles exceptions and returns human readable {@code NOT_FOUND},
+ * {@code BAD_REQUEST} and {@code CONFLICT} responses.
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@RestControllerAdvice
+public class StockExceptionHandler {
+
+	/**
+	 * Handles StockNotFoundException exception and returns error response
+	 * 
+	 * @param exception - {@link StockNotFoundException}
+	 * @return {@link ErrorResponse}
+	 */
+	@ExceptionHandler(StockNotFoundException.class)
+	public ResponseEntity<ErrorResponse> handleNotFoundException(Exception exception) {
+		return getResponse(new ErrorResponse(HttpStatus.NOT_FOUND, exception.getMessage()));
+	}
+	
+	/**
+	 * Handles WebExchangeBindException exception and returns error response with
+	 * the failed validations
+	 * 
+	 * @param exception - {@link WebExchangeBindException}
+	 * @return {@link ErrorResponse}
+	 */
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<ErrorResponse> handleValidationException(WebExchangeBindException exception) {
+		List<String> errors = new ArrayList<>();
+		exception.getFieldErrors().forEach(error -> errors.add(error.getDefaultMessage()));
+		return getResponse(new ErrorResponse(HttpStatus.BAD_REQUEST, errors));
+	}
+	
+	/**
+	 * Handles ServerWebInputException, StockAlreadyExistsException and
+	 * IllegalArgumentException exceptions and returns error response
+	 * 
+	 * @param exception - {@link ServerWebInputException},
+	 *                  {@link StockAlreadyExistsException} or
+	 *                  {@link IllegalArgumentException}
+	 * @return {@link ErrorResponse}
+	 */
+	@ExceptionHandler({ServerWebInputException.class, StockAlreadyExistsException.class, IllegalArgumentException.class})
+	public ResponseEntity<ErrorResponse> handleBadRequestException(Exception exception) {
+		return getResponse(new ErrorResponse(HttpStatus.BAD_REQUEST, exception.getMessage()));
+	}
+	
+	/**
+	 * Handles StockConflictException and OptimisticLockingFailureException
+	 * exceptions and returns error response
+	 * 
+	 * @param exception - {@link StockConflictException} or
+	 *                  {@link OptimisticLockingFailureException}
+	 * @return {@link ErrorResponse}
+	 */
+	@ExceptionHandler({StockConflictException.class, OptimisticLockingFailureException.class})
+	public ResponseEntity<ErrorResponse> handleConflictException(Exception exception) {
+		return getResponse(new ErrorResponse(HttpStatus.CONFLICT, exception.getMessage()));
+	}
+	
+	private ResponseEntity<ErrorResponse> getResponse(ErrorResponse response) {
+		return new ResponseEntity<>(response, response.getStatus());
+	}
+}
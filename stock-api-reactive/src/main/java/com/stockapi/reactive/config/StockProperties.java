@@ -0,0 +1,51 @@
+package com.stockapi.reactive.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the reactive Stock API bound from the
+ * {@code stock.*} keys
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Data
+@ConfigurationProperties(prefix = "stock")
+public class StockProperties {
+
+	private Pagination pagination = new Pagination();
+
+	private Stream stream = new Stream();
+
+	/**
+	 * Keyset pagination settings for list endpoints
+	 */
+	@Data
+	public static class Pagination {
+
+		/**
+		 * Page size used when the request has no limit
+		 */
+		private int defaultLimit = 100;
+
+		/**
+		 * Upper bound for the requested page size
+		 */
+		private int maxLimit = 1000;
+	}
+
+	/**
+	 * Streaming settings of the full stock list
+	 */
+	@Data
+	public static class Stream {
+
+		/**
+		 * Number of rows requested from the database at a time, the next rows are
+		 * requested only as the client consumes the previous ones
+		 */
+		private int prefetch = 500;
+	}
+}
@@ -0,0 +1,112 @@
+package com.stockapi.reactive.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.stockapi.reactive.model.PriceRequest;
+import com.stockapi.reactive.model.StockRequest;
+import com.stockapi.reactive.model.StockResponse;
+import com.stockapi.reactive.service.StockService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking REST controller for Stock API, serves the same
+ * {@code /api/stocks} contract as the servlet application
+ * 
+ * @author gorkemdemiray
+ *
+ */
+@RestController
+@RequestMapping("/api/stocks")
+public class StockRestController {
+	
+	@Autowired
+	private StockService stockService;
+
+	/**
+	 * Returns a page of stock responses ordered by id
+	 * 
+	 * @param after - id of the last stock of the previous page
+	 * @param limit - page size
+	 * @return {@link Flux} of {@link StockResponse} after the given id
+	 */
+	@GetMapping
+	public Flux<StockResponse> getStocks(@RequestParam(defaultValue = "0") Long after,
+			@RequestParam(required = false) Integer limit) {
+		return stockService.getStocks(after, limit);
+	}
+	
+	/**
+	 * Streams all the stock responses, as a JSON array or as newline delimited
+	 * JSON. Rows are read from the database only as fast as the client consumes
+	 * them
+	 * 
+	 * @return {@link Flux} of all {@link StockResponse}
+	 */
+	@GetMapping(path = "/all", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<StockResponse> getAllStocks() {
+		return stockService.streamStocks();
+	}
+	
+	/**
+	 * Streams the stock changes as server-sent events
+	 * 
+	 * @return {@link Flux} of changed {@link StockResponse}
+	 */
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<StockResponse> streamStocks() {
+		return stockService.streamChanges();
+	}
+	
+	/**
+	 * Returns stock response
+	 * 
+	 * @param id - stock id
+	 * @return {@link Mono} of {@link StockResponse} due to given id
+	 */
+	@GetMapping("/{id}")
+	public Mono<StockResponse> getStock(@PathVariable Long id) {
+		return stockService.getStock(id);
+	}
+	
+	/**
+	 * Adds a new stock with given values if all fields are valid, otherwise
+	 * signals exception
+	 * 
+	 * @param stockRequest - {@link StockRequest} which has name and current price
+	 * @return {@link Mono} of {@link StockResponse}
+	 */
+	@PostMapping
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<StockResponse> createStock(@Valid @RequestBody StockRequest stockRequest) {
+		return stockService.createStock(stockRequest);
+	}
+	
+	/**
+	 * Updates the stock with the given price if all fields are valid, otherwise
+	 * signals exception
+	 * 
+	 * @param id           - stock id
+	 * @param priceRequest - {@link PriceRequest} which has current price
+	 * @return empty {@link Mono} completing with {@code NO_CONTENT}
+	 */
+	@PutMapping("/{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public Mono<Void> updateStock(@PathVariable Long id, @Valid @RequestBody PriceRequest priceRequest) {
+		return stockService.updateStock(id, priceRequest).then();
+	}
+}
@@ -0,0 +1,37 @@
+package com.stockapi.reactive.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock row of the reactive Stock API
+ * 
+ * @author gorkemdemiray
+ *
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("stock")
+public class Stock {
+	
+	@Id
+	private Long id;
+	
+	private String name;
+	private BigDecimal currentPrice;
+	private LocalDateTime lastUpdate;
+	
+	@Version
+	private Long version;
+}
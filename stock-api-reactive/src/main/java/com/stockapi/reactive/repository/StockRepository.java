@@ -0,0 +1,37 @@
+package com.stockapi.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.stockapi.reactive.domain.Stock;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive {@link Stock} repository
+ * 
+ * @author gorkemdemiray
+ * 
+ */
+@Repository
+public interface StockRepository extends ReactiveCrudRepository<Stock, Long> {
+
+	/**
+	 * Keyset pagination query, returns the stocks whose id is greater than the
+	 * given cursor ordered by id
+	 * 
+	 * @param after - last id of the previous page
+	 * @param limit - page size
+	 * @return {@link Flux} of {@link Stock}
+	 */
+	@Query("select * from stock where id > :after order by id limit :limit")
+	public Flux<Stock> findPage(long after, int limit);
+
+	/**
+	 * 
+	 * @return {@link Flux} of all stocks ordered by id
+	 */
+	@Query("select * from stock order by id")
+	public Flux<Stock> findAllOrderById();
+}
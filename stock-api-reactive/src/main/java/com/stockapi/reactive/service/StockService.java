@@ -0,0 +1,189 @@
+package com.stockapi.reactive.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import com.stockapi.reactive.config.StockProperties;
+import com.stockapi.reactive.domain.Stock;
+import com.stockapi.reactive.exception.StockAlreadyExistsException;
+import com.stockapi.reactive.exception.StockConflictException;
+import com.stockapi.reactive.exception.StockNotFoundException;
+import com.stockapi.reactive.model.PriceRequest;
+import com.stockapi.reactive.model.StockRequest;
+import com.stockapi.reactive.model.StockResponse;
+import com.stockapi.reactive.repository.StockRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Service to perform business logic without blocking
+ * 
+ * @author gorkemdemiray
+ *
+ */
+@Service
+public class StockService {
+	
+	private static final int MAX_UPDATE_ATTEMPTS = 3;
+	
+	@Autowired
+	private StockRepository stockRepository;
+	
+	@Autowired
+	private StockProperties stockProperties;
+	
+	private final Sinks.Many<StockResponse> changes = Sinks.many().multicast().directBestEffort();
+	
+	/**
+	 * Gets a page of stocks whose id is greater than the given cursor
+	 * 
+	 * @param after - id of the last stock of the previous page
+	 * @param limit - page size, falls back to the default and is capped by the
+	 *              configured maximum
+	 * @return {@link Flux} of {@link StockResponse}
+	 */
+	public Flux<StockResponse> getStocks(Long after, Integer limit) {
+		return stockRepository.findPage(after == null ? 0L : after, resolveLimit(limit))
+				.map(this::getStockResponse);
+	}
+	
+	/**
+	 * Streams all stocks ordered by id. Rows are requested from the database in
+	 * batches of the configured prefetch as the subscriber consumes them, so a
+	 * slow client holds back the query instead of buffering the table
+	 * 
+	 * @return {@link Flux} of {@link StockResponse}
+	 */
+	public Flux<StockResponse> streamStocks() {
+		return stockRepository.findAllOrderById()
+				.limitRate(stockProperties.getStream().getPrefetch())
+				.map(this::getStockResponse);
+	}
+	
+	/**
+	 * Streams the stock changes, a subscriber which falls behind gets only the
+	 * latest change
+	 * 
+	 * @return {@link Flux} of changed {@link StockResponse}
+	 */
+	public Flux<StockResponse> streamChanges() {
+		return changes.asFlux().onBackpressureLatest();
+	}
+	
+	/**
+	 * Gets the stock with the given id if exists, otherwise signals exception
+	 * 
+	 * @param id - stock id
+	 * @return {@link Mono} of {@link StockResponse}
+	 */
+	public Mono<StockResponse> getStock(Long id) {
+		return find(id).map(this::getStockResponse);
+	}
+	
+	/**
+	 * Creates new stock with the given name and current price if no stock exists
+	 * with the name, otherwise signals exception. Duplicate names are detected by
+	 * the unique constraint on the name column
+	 * 
+	 * @param stockRequest - {@link StockRequest} which has name and current price
+	 * @return {@link Mono} of {@link StockResponse}
+	 */
+	public Mono<StockResponse> createStock(StockRequest stockRequest) {
+		Stock stock = Stock.builder()
+				.name(stockRequest.getName())
+				.currentPrice(stockRequest.getCurrentPrice())
+				.lastUpdate(LocalDateTime.now()).build();
+		return stockRepository.save(stock)
+				.onErrorMap(DataIntegrityViolationException.class,
+						e -> new StockAlreadyExistsException("Stock already exists with the name : " + stockRequest.getName()))
+				.map(this::getStockResponse)
+				.doOnNext(this::emit);
+	}
+	
+	/**
+	 * Updates the stock with the given current price. If the request has a
+	 * timestamp the update is applied only if the stored price is not newer.
+	 * Concurrent updates are detected by the version of the stock and retried on
+	 * the latest state
+	 * 
+	 * @param stockId      - stock id
+	 * @param priceRequest - {@link PriceRequest} which has current price and
+	 *                     optional timestamp
+	 * @return {@link Mono} of {@link StockResponse}
+	 */
+	public Mono<StockResponse> updateStock(Long stockId, PriceRequest priceRequest) {
+		LocalDateTime timestamp = priceRequest.getTimestamp();
+		return Mono.defer(() -> find(stockId))
+				.flatMap(stock -> {
+					if (timestamp != null && stock.getLastUpdate() != null && stock.getLastUpdate().isAfter(timestamp))
+						return Mono.error(new StockConflictException(
+								"Stock has a newer price than the given timestamp for the id : " + stockId));
+					stock.setCurrentPrice(priceRequest.getCurrentPrice());
+					stock.setLastUpdate(timestamp == null ? LocalDateTime.now() : timestamp);
+					return stockRepository.save(stock);
+				})
+				.retryWhen(Retry.backoff(MAX_UPDATE_ATTEMPTS - 1, Duration.ofMillis(10))
+						.filter(OptimisticLockingFailureException.class::isInstance)
+						.onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+				.map(this::getStockResponse)
+				.doOnNext(this::emit);
+	}
+	
+	/**
+	 * Emits the changed stock to the stream subscribers. Updates completing on
+	 * different threads may emit at the same time, an emission which finds
+	 * another one in progress is retried until it gets through
+	 * 
+	 * @param stockResponse - changed {@link StockResponse}
+	 */
+	private void emit(StockResponse stockResponse) {
+		changes.emitNext(stockResponse, (signalType, result) -> result == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+	}
+	
+	/**
+	 * Gets {@link Stock} if exists, otherwise signals exception
+	 * 
+	 * @param id - stock id
+	 * @return {@link Mono} of {@link Stock}
+	 */
+	private Mono<Stock> find(Long id) {
+		return stockRepository.findById(id)
+				.switchIfEmpty(Mono.error(() -> new StockNotFoundException("Stock not found with the id : " + id)));
+	}
+	
+	/**
+	 * Resolves page size for keyset pagination
+	 * 
+	 * @param limit - requested page size, may be null
+	 * @return page size between 1 and the configured maximum
+	 */
+	private int resolveLimit(Integer limit) {
+		StockProperties.Pagination pagination = stockProperties.getPagination();
+		if (limit == null)
+			return pagination.getDefaultLimit();
+		return Math.max(1, Math.min(limit, pagination.getMaxLimit()));
+	}
+	
+	/**
+	 * Converts {@link Stock} to {@link StockResponse} object
+	 * 
+	 * @param stock - {@link Stock}
+	 * @return {@link StockResponse}
+	 */
+	private StockResponse getStockResponse(Stock stock) {
+		return StockResponse.builder()
+				.id(stock.getId())
+				.name(stock.getName())
+				.currentPrice(stock.getCurrentPrice())
+				.lastUpdate(stock.getLastUpdate())
+				.build();
+	}
+}
@@ -0,0 +1,8 @@
+create table if not exists stock (
+	id bigint auto_increment primary key,
+	name varchar(255) not null,
+	current_price decimal(19, 2),
+	last_update timestamp,
+	version bigint,
+	constraint uk_stock_name unique (name)
+);
@@ -0,0 +1,170 @@
+package com.stockapi.reactive.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.stockapi.reactive.advice.StockExceptionHandler;
+import com.stockapi.reactive.exception.StockAlreadyExistsException;
+import com.stockapi.reactive.exception.StockConflictException;
+import com.stockapi.reactive.exception.StockNotFoundException;
+import com.stockapi.reactive.model.PriceRequest;
+import com.stockapi.reactive.model.StockRequest;
+import com.stockapi.reactive.model.StockResponse;
+import com.stockapi.reactive.service.StockService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive REST Controller unit tests
+ * 
+ * @author gorkemdemiray
+ *
+ */
+public class StockRestControllerTest {
+	
+	@InjectMocks
+	private StockRestController stockController;
+
+	@Mock
+	private StockService stockService;
+	
+	private WebTestClient webTestClient;
+	
+	private StockResponse gme, tsla;
+	
+	@BeforeEach
+	public void setUp() throws Exception {
+		MockitoAnnotations.openMocks(this);
+		
+		webTestClient = WebTestClient.bindToController(stockController)
+				.controllerAdvice(new StockExceptionHandler())
+				.build();
+		
+		gme = StockResponse.builder().id(1L).name("GameStop Corp.").currentPrice(new BigDecimal("325.00"))
+				.lastUpdate(LocalDateTime.now()).build();
+		tsla = StockResponse.builder().id(5L).name("Tesla Inc").currentPrice(new BigDecimal("793.53"))
+				.lastUpdate(LocalDateTime.now()).build();
+	}
+	
+	@Test
+	public void getStocks() throws Exception {
+		when(stockService.getStocks(1L, 10)).thenReturn(Flux.just(tsla));
+		
+		webTestClient.get().uri("/api/stocks?after=1&limit=10")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(1)
+				.jsonPath("$[0].name").isEqualTo(tsla.getName());
+	}
+	
+	@Test
+	public void getAllStocksAsNdjson() throws Exception {
+		when(stockService.streamStocks()).thenReturn(Flux.just(gme, tsla));
+		
+		webTestClient.get().uri("/api/stocks/all")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.expectBodyList(StockResponse.class).hasSize(2);
+	}
+	
+	@Test
+	public void getStock() throws Exception {
+		when(stockService.getStock(1L)).thenReturn(Mono.just(gme));
+		
+		webTestClient.get().uri("/api/stocks/1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.name").isEqualTo(gme.getName());
+	}
+	
+	@Test
+	public void getStockNotFound() throws Exception {
+		when(stockService.getStock(anyLong())).thenReturn(Mono.error(new StockNotFoundException("Stock not found with the id : 8")));
+		
+		webTestClient.get().uri("/api/stocks/8")
+				.exchange()
+				.expectStatus().isNotFound()
+				.expectBody()
+				.jsonPath("$.errorMessage[0]").isEqualTo("Stock not found with the id : 8");
+	}
+	
+	@Test
+	public void createStock() throws Exception {
+		when(stockService.createStock(any(StockRequest.class))).thenReturn(Mono.just(gme));
+		
+		webTestClient.post().uri("/api/stocks")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new StockRequest(gme.getName(), gme.getCurrentPrice()))
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody()
+				.jsonPath("$.id").isEqualTo(1);
+	}
+	
+	@Test
+	public void createStockWithExistingName() throws Exception {
+		when(stockService.createStock(any(StockRequest.class)))
+				.thenReturn(Mono.error(new StockAlreadyExistsException("Stock already exists with the name : " + gme.getName())));
+		
+		webTestClient.post().uri("/api/stocks")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new StockRequest(gme.getName(), gme.getCurrentPrice()))
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+	
+	@Test
+	public void createStockWithInvalidPrice() throws Exception {
+		webTestClient.post().uri("/api/stocks")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new StockRequest(gme.getName(), new BigDecimal("-1")))
+				.exchange()
+				.expectStatus().isBadRequest();
+		
+		verify(stockService, never()).createStock(any());
+	}
+	
+	@Test
+	public void updateStock() throws Exception {
+		when(stockService.updateStock(eq(5L), any(PriceRequest.class))).thenReturn(Mono.just(tsla));
+		
+		webTestClient.put().uri("/api/stocks/5")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(PriceRequest.builder().currentPrice(new BigDecimal("800.00")).build())
+				.exchange()
+				.expectStatus().isNoContent()
+				.expectBody().isEmpty();
+	}
+	
+	@Test
+	public void updateStockWithStaleTimestamp() throws Exception {
+		when(stockService.updateStock(eq(5L), any(PriceRequest.class)))
+				.thenReturn(Mono.error(new StockConflictException("Stock has a newer price than the given timestamp for the id : 5")));
+		
+		webTestClient.put().uri("/api/stocks/5")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(PriceRequest.builder().currentPrice(new BigDecimal("800.00")).timestamp(LocalDateTime.now().minusDays(1)).build())
+				.exchange()
+				.expectStatus().isEqualTo(409);
+	}
+}